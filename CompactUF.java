@@ -0,0 +1,192 @@
+import java.util.Random;
+
+// 節省快取的 Union-Find：只用一個 int[] parent
+//   - parent[i] >= 0 ：i 的父節點
+//   - parent[i] <  0 ：i 是根，-parent[i] 是大小（Link.SIZE、Link.RANDOM）或 rank+1（Link.RANK）
+//     Link.RANK 的根已經拿來存 rank，所以大小另外放在 size[]（只有 RANK 會配置）
+// 合併時兩個根的資料都在同一個陣列裡，比 WeightedQuickUnionUF 的 id[] + size[] 少碰一條快取線
+// 找根和合併的策略都可以選，方便在自己的資料和機器上量出最快的組合
+public class CompactUF implements UnionFind {
+    // 找根時怎麼縮短路徑
+    public enum Find {
+        NONE,         // 不壓縮（和 WeightedQuickUnionUF 一樣）
+        HALVING,      // 路徑減半：每個節點接到祖父（和 WeightedQuickUnionPathCompressionUF 一樣）
+        SPLITTING,    // 路徑分裂：路徑上每個節點都接到祖父
+        COMPRESSION   // 完全壓縮：第二趟把路徑上所有節點直接接到根
+    }
+
+    // 合併時誰掛到誰下面
+    public enum Link {
+        SIZE,         // 小樹掛到大樹
+        RANK,         // 低 rank 掛到高 rank
+        RANDOM        // 依隨機的索引優先順序（不需要額外的根資料）
+    }
+
+    private final int[] parent;
+    private final int[] size;   // 只有 Link.RANK 用：根的連通塊大小
+    private final Find find;
+    private final Link link;
+    private int count;   // 連通塊個數
+
+    // 預設：路徑減半 + 依大小合併
+    public CompactUF(int N) {
+        this(N, Find.HALVING, Link.SIZE);
+    }
+
+    public CompactUF(int N, Find find, Link link) {
+        this.parent = new int[N];
+        this.find = find;
+        this.link = link;
+        this.count = N;
+        java.util.Arrays.fill(parent, -1);   // 每個元素都是大小 1（或 rank 0）的根
+        if (link == Link.RANK) {
+            size = new int[N];
+            java.util.Arrays.fill(size, 1);
+        } else {
+            size = null;
+        }
+    }
+
+    // 找到根節點
+    public int find(int i) {
+        switch (find) {
+            case NONE:
+                while (parent[i] >= 0) i = parent[i];
+                return i;
+            case HALVING:
+                while (parent[i] >= 0) {
+                    int p = parent[i], g = parent[p];
+                    if (g < 0) return p;
+                    parent[i] = g;               // 接到祖父，然後跳到祖父
+                    i = g;
+                }
+                return i;
+            case SPLITTING:
+                while (parent[i] >= 0) {
+                    int p = parent[i], g = parent[p];
+                    if (g < 0) return p;
+                    parent[i] = g;               // 接到祖父，然後只往上一步
+                    i = p;
+                }
+                return i;
+            default: {
+                int root = i;
+                while (parent[root] >= 0) root = parent[root];
+                while (parent[i] >= 0 && parent[i] != root) {   // 第二趟：全部直接接到根
+                    int p = parent[i];
+                    parent[i] = root;
+                    i = p;
+                }
+                return root;
+            }
+        }
+    }
+
+    // 判斷 p 和 q 是否連通
+    public boolean connected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    // 合併
+    public void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) return;
+
+        switch (link) {
+            case SIZE:
+                if (parent[rootP] > parent[rootQ]) { int t = rootP; rootP = rootQ; rootQ = t; }  // 讓 rootP 是較大的（值較負）
+                parent[rootP] += parent[rootQ];
+                break;
+            case RANK:
+                if (parent[rootP] > parent[rootQ]) { int t = rootP; rootP = rootQ; rootQ = t; }
+                else if (parent[rootP] == parent[rootQ]) parent[rootP]--;                         // rank 相同，新根的 rank +1
+                size[rootP] += size[rootQ];
+                break;
+            default:
+                if (priority(rootP) < priority(rootQ)) { int t = rootP; rootP = rootQ; rootQ = t; }
+                parent[rootP] += parent[rootQ];   // 優先順序不用存在根上，根的位置拿來記大小
+                break;
+        }
+        parent[rootQ] = rootP;   // rootQ 掛到 rootP
+        count--;
+    }
+
+    // 固定的「隨機」優先順序：把索引打散（murmur3 的 finalizer），不用另外存陣列
+    private static int priority(int i) {
+        int h = i * 0x9E3779B9;
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        return h;
+    }
+
+    // p 所在連通塊的大小
+    public int componentSize(int p) {
+        int root = find(p);
+        return link == Link.RANK ? size[root] : -parent[root];
+    }
+
+    // 連通塊個數
+    public int count() {
+        return count;
+    }
+
+    // === 量測 ===
+
+    private interface Factory { UnionFind create(int N); }
+
+    private static double time(Factory factory, int N, int[] edges, int[] queries) {
+        double best = Double.MAX_VALUE;
+        for (int rep = 0; rep < 3; rep++) {   // 取三次中最快的，減少 JIT 和 GC 的干擾
+            UnionFind uf = factory.create(N);
+            long start = System.nanoTime();
+            for (int k = 0; k < edges.length; k += 2) uf.union(edges[k], edges[k + 1]);
+            int hits = 0;
+            for (int k = 0; k < queries.length; k += 2) if (uf.connected(queries[k], queries[k + 1])) hits++;
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+            if (hits < 0) System.out.println();
+        }
+        return best;
+    }
+
+    // main() 方法：在隨機、長鏈、格子三種工作負載上量測每一種組合（單位 ms，越小越好）
+    public static void main(String[] args) {
+        int N = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+        Random random = new Random(42);
+        String[] names = { "random", "chain", "grid" };
+        // 三種工作負載（UnionFindBenchmark 的產生器）：每個都是一串邊，接著查詢同樣多次的隨機 connected()
+        int[][] workloads = { UnionFindBenchmark.uniform(N, N, random), UnionFindBenchmark.chain(N), UnionFindBenchmark.grid(N, random) };
+        int[] queries = UnionFindBenchmark.uniform(N, N, random);
+
+        // 每一種合併策略的 componentSize() 都要和 WeightedQuickUnionUF 相同
+        WeightedQuickUnionUF expected = new WeightedQuickUnionUF(N);
+        for (int k = 0; k < N; k += 2) expected.union(workloads[0][k], workloads[0][k + 1]);
+        for (Link l : Link.values()) {
+            CompactUF uf = new CompactUF(N, Find.HALVING, l);
+            for (int k = 0; k < N; k += 2) uf.union(workloads[0][k], workloads[0][k + 1]);
+            for (int i = 0; i < N; i += 97) {
+                if (uf.componentSize(i) != expected.componentSize(i)) throw new IllegalStateException(l + " 的 componentSize 錯誤: " + i);
+            }
+        }
+
+        System.out.printf("N=%d%n%-30s", N, "");
+        for (String name : names) System.out.printf("%10s", name);
+        System.out.println();
+
+        row("WeightedQuickUnionUF", WeightedQuickUnionUF::new, N, workloads, queries);
+        row("WeightedQuickUnionPathCompr.", WeightedQuickUnionPathCompressionUF::new, N, workloads, queries);
+        for (Link l : Link.values()) {
+            for (Find f : Find.values()) {
+                if (l == Link.RANDOM && f == Find.NONE) continue;   // 隨機索引又不壓縮，樹高沒有好的保證，略過
+                row("CompactUF " + l + "/" + f, n -> new CompactUF(n, f, l), N, workloads, queries);
+            }
+        }
+    }
+
+    private static void row(String label, Factory factory, int N, int[][] workloads, int[] queries) {
+        System.out.printf("%-30s", label);
+        for (int[] edges : workloads) System.out.printf("%10.1f", time(factory, N, edges, queries));
+        System.out.println();
+    }
+}
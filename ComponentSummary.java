@@ -0,0 +1,110 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// 可以合併的連通塊摘要：分片處理邊的每個 worker 各自產生一份，最後合併成全域的分群
+//   - 只記錄「不是自己的根」的元素：(元素, 根) 數對；孤立的元素不佔空間
+//   - 合併：把所有摘要的數對 union 進同一個 UF —— 每份摘要的分群就是它那些邊的遞移閉包，
+//     所以全部數對的閉包恰好等於全部邊的閉包
+// 檔案格式（big-endian）：MAGIC、N、K、接著 K 個 (元素, 根)
+public class ComponentSummary {
+    private static final int MAGIC = 0x55464353;  // "UFCS"
+
+    private final int N;
+    private final int[] elements;
+    private final int[] roots;
+
+    private ComponentSummary(int N, int[] elements, int[] roots) {
+        this.N = N;
+        this.elements = elements;
+        this.roots = roots;
+    }
+
+    // 從 UF 建立摘要
+    public static ComponentSummary of(WeightedQuickUnionPathCompressionUF uf) {
+        int N = uf.size();
+        int K = N - uf.count();                 // 非根的元素個數 = N - 連通塊個數
+        int[] elements = new int[K];
+        int[] roots = new int[K];
+        int k = 0;
+        for (int i = 0; i < N; i++) {
+            int r = uf.find(i);
+            if (r != i) {
+                elements[k] = i;
+                roots[k++] = r;
+            }
+        }
+        return new ComponentSummary(N, elements, roots);
+    }
+
+    // 合併多份摘要（至少一份，元素個數必須相同）
+    public static ComponentSummary merge(ComponentSummary... summaries) {
+        if (summaries.length == 0) throw new IllegalArgumentException("至少要有一份摘要");
+        int N = summaries[0].N;
+        WeightedQuickUnionPathCompressionUF uf = new WeightedQuickUnionPathCompressionUF(N);
+        for (ComponentSummary s : summaries) {
+            if (s.N != N) throw new IllegalArgumentException("摘要的元素個數不同: " + s.N + " != " + N);
+            for (int k = 0; k < s.elements.length; k++) uf.union(s.elements[k], s.roots[k]);
+        }
+        return of(uf);
+    }
+
+    // 每個元素的標籤（連通塊根的索引）
+    public int[] labels() {
+        int[] labels = new int[N];
+        for (int i = 0; i < N; i++) labels[i] = i;
+        for (int k = 0; k < elements.length; k++) labels[elements[k]] = roots[k];
+        return labels;
+    }
+
+    // 連通塊個數
+    public int count() {
+        java.util.BitSet isRoot = new java.util.BitSet(N);
+        isRoot.set(0, N);
+        for (int e : elements) isRoot.clear(e);
+        return isRoot.cardinality();
+    }
+
+    public int size() {
+        return N;
+    }
+
+    public void writeTo(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file.toFile()), 1 << 20))) {
+            out.writeInt(MAGIC);
+            out.writeInt(N);
+            out.writeInt(elements.length);
+            for (int k = 0; k < elements.length; k++) {
+                out.writeInt(elements[k]);
+                out.writeInt(roots[k]);
+            }
+        }
+    }
+
+    // 和 writeTo 對稱：用有緩衝的 DataInputStream 循序讀，檔案多大都不用一次映射
+    public static ComponentSummary readFrom(Path file) throws IOException {
+        long size = Files.size(file);
+        if (size < 12) throw new IOException("不是連通塊摘要檔: " + file);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file.toFile()), 1 << 20))) {
+            if (in.readInt() != MAGIC) throw new IOException("不是連通塊摘要檔: " + file);
+            int N = in.readInt();
+            int K = in.readInt();
+            if (K < 0 || K > N || size != 12 + 8L * K) throw new IOException("摘要檔長度不符: " + file);
+            int[] elements = new int[K];
+            int[] roots = new int[K];
+            for (int k = 0; k < K; k++) {
+                int e = in.readInt(), r = in.readInt();
+                if (e < 0 || e >= N || r < 0 || r >= N) throw new IOException("摘要檔內容損壞，第 " + k + " 個數對: " + file);
+                elements[k] = e;
+                roots[k] = r;
+            }
+            return new ComponentSummary(N, elements, roots);
+        }
+    }
+}
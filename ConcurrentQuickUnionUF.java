@@ -0,0 +1,127 @@
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+// 多執行緒版本的 Union-Find：父節點存在 AtomicIntegerArray，所有寫入都用 CAS 完成，不需要任何鎖
+// 合併規則用「依索引合併」（索引小的根掛到索引大的根），因為多執行緒下 size[] 無法和 id[] 一起原子更新
+public class ConcurrentQuickUnionUF implements UnionFind {
+    private final AtomicIntegerArray id;  // 儲存每個元素的父節點（可同時被多個執行緒讀寫）
+
+    // 初始化陣列
+    public ConcurrentQuickUnionUF(int N) {
+        id = new AtomicIntegerArray(N);
+        for (int i = 0; i < N; i++) {
+            id.set(i, i);   // 初始化時每個元素的根節點是自己
+        }
+    }
+
+    // 找到根節點（使用路徑減半，用 CAS 寫入；CAS 失敗代表別的執行緒已經改過，不影響正確性）
+    public int find(int i) {
+        int parent = id.get(i);
+        while (i != parent) {
+            int grand = id.get(parent);
+            if (parent != grand) {
+                id.compareAndSet(i, parent, grand);  // 把 i 接到祖父節點，只是加速用，失敗也沒關係
+            }
+            i = grand;
+            parent = id.get(i);
+        }
+        return i;
+    }
+
+    // i 目前的父節點（不找根）
+    int parent(int i) {
+        return id.get(i);
+    }
+
+    // 判斷 p 和 q 是否連通：兩個根相同就是連通；
+    // 若不同而且 rootP 仍然是根，代表在這個時間點兩者確實不連通，否則表示有人剛合併過，重新找一次
+    public boolean connected(int p, int q) {
+        while (true) {
+            int rootP = find(p);
+            int rootQ = find(q);
+            if (rootP == rootQ) return true;
+            if (id.get(rootP) == rootP) return false;
+        }
+    }
+
+    // 合併 union()：用 CAS 把索引較小的根接到索引較大的根上，CAS 失敗就重新找根再試
+    public void union(int p, int q) {
+        union(p, q, -1);
+    }
+
+    // 同上，但 pinned（必須是根）永遠當父節點：順序變成「pinned 最大、其餘依索引」，仍是全序，所以不會形成環
+    // ParallelUnionFind 用它讓巨大連通塊的根一直是根
+    void union(int p, int q, int pinned) {
+        while (true) {
+            int rootP = find(p);  // 找到 p 的根節點
+            int rootQ = find(q);  // 找到 q 的根節點
+
+            if (rootP == rootQ) return;  // 如果已經連通，直接返回
+
+            // 固定方向（小索引 → 大索引），兩個執行緒不會互相指向對方而形成環
+            int child = Math.min(rootP, rootQ);
+            int parent = Math.max(rootP, rootQ);
+            if (child == pinned) { child = parent; parent = pinned; }
+            if (id.compareAndSet(child, child, parent)) return;  // child 仍是根才會成功
+        }
+    }
+
+    // main() 方法：多執行緒壓力測試，最後和單執行緒的 WeightedQuickUnionPathCompressionUF 比對分群結果
+    public static void main(String[] args) throws InterruptedException {
+        int N = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int M = args.length > 1 ? Integer.parseInt(args[1]) : N;           // 邊數
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        // 產生隨機的邊
+        Random random = new Random(42);
+        int[] ps = new int[M];
+        int[] qs = new int[M];
+        for (int k = 0; k < M; k++) {
+            ps[k] = random.nextInt(N);
+            qs[k] = random.nextInt(N);
+        }
+
+        // 單執行緒基準
+        long start = System.nanoTime();
+        WeightedQuickUnionPathCompressionUF expected = new WeightedQuickUnionPathCompressionUF(N);
+        for (int k = 0; k < M; k++) expected.union(ps[k], qs[k]);
+        long sequentialNanos = System.nanoTime() - start;
+
+        // 多執行緒：每個執行緒負責一段邊，同時混入 connected() 查詢
+        ConcurrentQuickUnionUF uf = new ConcurrentQuickUnionUF(N);
+        Thread[] workers = new Thread[threads];
+        start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            final int from = (int) ((long) M * t / threads);
+            final int to = (int) ((long) M * (t + 1) / threads);
+            workers[t] = new Thread(() -> {
+                for (int k = from; k < to; k++) {
+                    uf.union(ps[k], qs[k]);
+                    if (!uf.connected(ps[k], qs[k])) throw new IllegalStateException("union 後不連通: " + ps[k] + " " + qs[k]);
+                }
+            });
+            workers[t].start();
+        }
+        for (Thread w : workers) w.join();
+        long concurrentNanos = System.nanoTime() - start;
+
+        // 比對分群（兩個方向都要檢查）：
+        // 1) 並行版同一個根底下的元素，在 WQUPC 也必須連通
+        int[] first = new int[N];    // 並行版的根 → 第一次遇到的成員
+        java.util.Arrays.fill(first, -1);
+        for (int i = 0; i < N; i++) {
+            int c = uf.find(i);
+            if (first[c] == -1) first[c] = i;
+            else if (!expected.connected(i, first[c])) throw new IllegalStateException("多合併了元素 " + i);
+        }
+        // 2) 每條邊的兩端在並行版也必須連通（WQUPC 的分群就是這些邊的遞移閉包）
+        for (int k = 0; k < M; k++) {
+            if (!uf.connected(ps[k], qs[k])) throw new IllegalStateException("漏合併了邊 " + ps[k] + " " + qs[k]);
+        }
+
+        System.out.printf("N=%d, M=%d, threads=%d%n", N, M, threads);
+        System.out.printf("sequential WQUPC : %.1f ms%n", sequentialNanos / 1e6);
+        System.out.printf("concurrent CAS UF: %.1f ms%n", concurrentNanos / 1e6);
+        System.out.println("分群結果與 WQUPC 一致");
+    }
+}
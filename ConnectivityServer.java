@@ -0,0 +1,200 @@
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/*
+ * 本機共用的連通性服務：一個 ConcurrentQuickUnionUF，透過 TCP 接受批次的 union / connected 請求
+ *
+ * 協定（big-endian）：
+ *   請求批次：int count，接著 count 筆 (byte op, int p, int q)，op 1 = union、2 = connected
+ *   回應批次：count 個 byte；connected 回 0 / 1，union 一律回 1（已完成）
+ *   客戶端可以連續送出多個批次（pipelining），伺服器照順序回應
+ *
+ * 伺服器：每個連線一個虛擬執行緒（需要 JDK 21）；回應先寫進緩衝區，
+ *        等到輸入暫時沒有資料（in.available() == 0）才 flush，多個批次的回應會合併成一次寫入
+ *
+ * 執行：
+ *   java ConnectivityServer                                   // 同一個 JVM 裡啟動伺服器 + 負載產生器，並和直接呼叫比較
+ *   java ConnectivityServer server 7070 10000000              // 只啟動伺服器
+ *   java ConnectivityServer load localhost 7070 10000000 8    // 對既有的伺服器產生負載（8 個連線）
+ */
+public class ConnectivityServer {
+    static final byte UNION = 1, CONNECTED = 2;
+
+    private final ConcurrentQuickUnionUF uf;
+    private final int N;
+    private final ServerSocket serverSocket;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public ConnectivityServer(int port, int N) throws IOException {
+        this.N = N;
+        this.uf = new ConcurrentQuickUnionUF(N);
+        this.serverSocket = new ServerSocket(port, 128, InetAddress.getLoopbackAddress());
+    }
+
+    public int port() {
+        return serverSocket.getLocalPort();
+    }
+
+    // 開始接受連線（在虛擬執行緒上跑 accept 迴圈）
+    public ConnectivityServer start() {
+        executor.submit(() -> {
+            while (!serverSocket.isClosed()) {
+                Socket socket;
+                try {
+                    socket = serverSocket.accept();
+                } catch (IOException e) {
+                    return;   // 伺服器關閉
+                }
+                executor.submit(() -> handle(socket));
+            }
+        });
+        return this;
+    }
+
+    private void handle(Socket socket) {
+        try (socket;
+             DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+             BufferedOutputStream out = new BufferedOutputStream(socket.getOutputStream(), 1 << 16)) {
+            socket.setTcpNoDelay(true);
+            while (true) {
+                int count;
+                try {
+                    count = in.readInt();
+                } catch (EOFException e) {
+                    return;   // 客戶端關閉連線
+                }
+                for (int k = 0; k < count; k++) {
+                    byte op = in.readByte();
+                    int p = in.readInt(), q = in.readInt();
+                    if (p < 0 || p >= N || q < 0 || q >= N) throw new IOException("元素超出範圍: " + p + " " + q);
+                    if (op == UNION) {
+                        uf.union(p, q);
+                        out.write(1);
+                    } else if (op == CONNECTED) {
+                        out.write(uf.connected(p, q) ? 1 : 0);
+                    } else {
+                        throw new IOException("未知的操作: " + op);
+                    }
+                }
+                if (in.available() == 0) out.flush();   // 沒有排隊中的請求才真的送出
+            }
+        } catch (IOException e) {
+            System.err.println("連線錯誤: " + e.getMessage());
+        }
+    }
+
+    public void close() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    // === 負載產生器 ===
+
+    // 一個連線：維持 depth 個在途批次，每收到一個回應就再送一個；回傳每個批次的來回時間（ns）
+    static long[] client(String host, int port, int N, int batches, int batchSize, int depth, double unionRatio, long seed)
+            throws IOException {
+        SplittableRandom random = new SplittableRandom(seed);
+        long[] latency = new long[batches];
+        long[] sentAt = new long[depth];
+        byte[] reply = new byte[batchSize];
+        try (Socket socket = new Socket(host, port)) {
+            socket.setTcpNoDelay(true);
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 1 << 16));
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 1 << 16));
+            int sent = 0;
+            for (int received = 0; received < batches; received++) {
+                while (sent < batches && sent - received < depth) {
+                    out.writeInt(batchSize);
+                    for (int k = 0; k < batchSize; k++) {
+                        out.writeByte(random.nextDouble() < unionRatio ? UNION : CONNECTED);
+                        out.writeInt(random.nextInt(N));
+                        out.writeInt(random.nextInt(N));
+                    }
+                    sentAt[sent % depth] = System.nanoTime();
+                    sent++;
+                }
+                out.flush();
+                in.readFully(reply);
+                latency[received] = System.nanoTime() - sentAt[received % depth];
+            }
+        }
+        return latency;
+    }
+
+    // 同樣的請求直接呼叫 ConcurrentQuickUnionUF（沒有網路），當作基準
+    static long inProcess(ConcurrentQuickUnionUF uf, int N, long requests, double unionRatio, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        long hits = 0;
+        for (long k = 0; k < requests; k++) {
+            boolean union = random.nextDouble() < unionRatio;
+            int p = random.nextInt(N), q = random.nextInt(N);
+            if (union) uf.union(p, q);
+            else if (uf.connected(p, q)) hits++;
+        }
+        return hits;
+    }
+
+    static void load(String host, int port, int N, int connections) throws Exception {
+        int batches = 2000, batchSize = 256, depth = 4;
+        double unionRatio = 0.2;
+        long[][] latencies = new long[connections][];
+        Thread[] threads = new Thread[connections];
+        long start = System.nanoTime();
+        for (int c = 0; c < connections; c++) {
+            final int id = c;
+            threads[c] = Thread.ofVirtual().start(() -> {
+                try {
+                    latencies[id] = client(host, port, N, batches, batchSize, depth, unionRatio, id);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            });
+        }
+        for (Thread t : threads) t.join();
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        long[] all = new long[connections * batches];
+        for (int c = 0; c < connections; c++) System.arraycopy(latencies[c], 0, all, c * batches, batches);
+        Arrays.sort(all);
+        long requests = (long) connections * batches * batchSize;
+        System.out.printf("socket     : %d 連線, 批次 %d, 在途 %d → %.0f requests/s, 批次來回 p50=%.1f µs, p99=%.1f µs%n",
+                connections, batchSize, depth, requests / seconds,
+                all[all.length / 2] / 1e3, all[Math.min(all.length - 1, (int) (all.length * 0.99))] / 1e3);
+
+        // 基準：同一個 JVM 直接呼叫
+        ConcurrentQuickUnionUF uf = new ConcurrentQuickUnionUF(N);
+        start = System.nanoTime();
+        inProcess(uf, N, requests, unionRatio, 42);
+        seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("in-process : %.0f requests/s（單執行緒直接呼叫）%n", requests / seconds);
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("server")) {
+            ConnectivityServer server = new ConnectivityServer(Integer.parseInt(args[1]), Integer.parseInt(args[2])).start();
+            System.out.println("ConnectivityServer 在 port " + server.port() + " 上等待連線");
+            Thread.currentThread().join();
+        } else if (args.length > 0 && args[0].equals("load")) {
+            load(args[1], Integer.parseInt(args[2]), Integer.parseInt(args[3]), Integer.parseInt(args[4]));
+        } else {
+            int N = 1_000_000;
+            ConnectivityServer server = new ConnectivityServer(0, N).start();
+            try {
+                load("localhost", server.port(), N, 8);
+            } finally {
+                server.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,77 @@
+// 可以一直加入新元素的加權合併 + 路徑壓縮 Union-Find
+// id[] 和 size[] 滿了就加倍（攤銷 O(1)），給 LongKeyUnionFind / StringKeyUnionFind 當核心
+public class GrowableWeightedQuickUnionUF implements UnionFind {
+    private int[] id;    // 儲存每個元素的父節點
+    private int[] size;  // 儲存每棵樹的大小
+    private int n;       // 目前的元素個數
+    private int count;   // 連通塊個數
+
+    public GrowableWeightedQuickUnionUF() {
+        this(16);
+    }
+
+    // capacity 只是初始容量，之後會自動成長
+    public GrowableWeightedQuickUnionUF(int capacity) {
+        id = new int[Math.max(1, capacity)];
+        size = new int[id.length];
+    }
+
+    // 加入一個新元素（自成一個連通塊），回傳它的索引
+    public int add() {
+        if (n == id.length) {
+            int capacity = (int) Math.min(Integer.MAX_VALUE - 8, 2L * n);
+            if (capacity == n) throw new IllegalStateException("元素個數已達上限");
+            id = java.util.Arrays.copyOf(id, capacity);
+            size = java.util.Arrays.copyOf(size, capacity);
+        }
+        id[n] = n;      // 新元素的根節點是自己
+        size[n] = 1;
+        count++;
+        return n++;
+    }
+
+    // 找到根節點（使用路徑壓縮）
+    public int find(int i) {
+        while (i != id[i]) {
+            id[i] = id[id[i]];  // 將節點 i 直接連接到它的祖父節點
+            i = id[i];
+        }
+        return i;
+    }
+
+    // 判斷 p 和 q 是否連通
+    public boolean connected(int p, int q) {
+        return find(p) == find(q);
+    }
+
+    // 加權合併 union()：將小樹掛到大樹上
+    public void union(int p, int q) {
+        int rootP = find(p);
+        int rootQ = find(q);
+        if (rootP == rootQ) return;
+
+        if (size[rootP] < size[rootQ]) {
+            id[rootP] = rootQ;
+            size[rootQ] += size[rootP];
+        } else {
+            id[rootQ] = rootP;
+            size[rootP] += size[rootQ];
+        }
+        count--;
+    }
+
+    // p 所在連通塊的大小
+    public int componentSize(int p) {
+        return size[find(p)];
+    }
+
+    // 元素個數
+    public int size() {
+        return n;
+    }
+
+    // 連通塊個數
+    public int count() {
+        return count;
+    }
+}
@@ -0,0 +1,254 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+ * 最小生成森林（Kruskal + filter-Kruskal），核心是 WeightedQuickUnionPathCompressionUF
+ *
+ * 儲存：邊放在三個基本型別陣列 from[]、to[]、weight[]，不建立 Edge 物件
+ *
+ * filter-Kruskal：
+ *   - 邊數夠少時直接 Kruskal：排序後依序掃描，兩端未連通就接受
+ *   - 否則挑一個樞紐權重，把邊分成「輕」和「重」兩半（像 quicksort 的 partition）
+ *   - 先遞迴處理輕的那半；接著把重的那半裡「兩端已經連通」的邊丟掉（filter），再遞迴處理剩下的
+ *   - 接受 N-1 條邊就停止；大部分的重邊根本不會被排序
+ *
+ * 平行排序：把 (float 權重的可排序位元, 邊索引) 包成一個 long，用 Arrays.parallelSort；
+ *          float 的捨入不會改變大小順序（只會造成平手），所以最後再把 float 相同的每一段依 double 權重排序
+ *          （三向切分的 quicksort，O(n log n)：1e9 + 小數這類權重幾乎全部捨入成同一個 float）
+ *
+ * 輸出：接受的邊一條一條交給 EdgeSink，不需要把整個森林存成物件
+ *
+ * 執行：
+ *   java KruskalMST                     // N=1000000, M=10000000 隨機圖
+ *   java KruskalMST 10000000 200000000  // 需要夠大的 -Xmx
+ */
+public class KruskalMST {
+    // 接收森林的每一條邊
+    public interface EdgeSink {
+        void accept(int p, int q, double weight);
+    }
+
+    private static final int BASE_MIN = 1 << 12;     // 邊數不超過 max(BASE_MIN, N) 就直接排序
+    private static final int INSERTION_CUTOFF = 16;   // sortExact 在這個長度以下改用插入排序
+
+    private final int N;
+    private int[] from = new int[16];
+    private int[] to = new int[16];
+    private double[] weight = new double[16];
+    private int M;
+
+    // 這一次 forest() 的狀態
+    private WeightedQuickUnionPathCompressionUF uf;
+    private int[] idx;
+    private int accepted;
+    private double total;
+    private EdgeSink sink;
+    private final Random random = new Random(1);
+
+    public KruskalMST(int N) {
+        this.N = N;
+    }
+
+    // 加入一條邊
+    public void addEdge(int p, int q, double w) {
+        if (M == from.length) {
+            int n = (int) Math.min(Integer.MAX_VALUE - 8, 2L * M);
+            from = Arrays.copyOf(from, n);
+            to = Arrays.copyOf(to, n);
+            weight = Arrays.copyOf(weight, n);
+        }
+        from[M] = p;
+        to[M] = q;
+        weight[M] = w;
+        M++;
+    }
+
+    // 計算最小生成森林，每條接受的邊交給 sink（可以是 null），回傳總權重
+    public double forest(EdgeSink sink) {
+        this.sink = sink;
+        this.uf = new WeightedQuickUnionPathCompressionUF(N);
+        this.idx = new int[M];
+        for (int e = 0; e < M; e++) idx[e] = e;
+        this.accepted = 0;
+        this.total = 0;
+        filterKruskal(0, M);
+        idx = null;
+        return total;
+    }
+
+    // 一般的 Kruskal（全部排序），和 filter-Kruskal 比較用
+    public double plainKruskal(EdgeSink sink) {
+        this.sink = sink;
+        this.uf = new WeightedQuickUnionPathCompressionUF(N);
+        this.idx = new int[M];
+        for (int e = 0; e < M; e++) idx[e] = e;
+        this.accepted = 0;
+        this.total = 0;
+        kruskal(0, M);
+        idx = null;
+        return total;
+    }
+
+    private void filterKruskal(int lo, int hi) {
+        if (accepted == N - 1 || lo >= hi) return;
+        if (hi - lo <= Math.max(BASE_MIN, N)) {
+            kruskal(lo, hi);
+            return;
+        }
+
+        // 三個隨機樣本的中位數當樞紐
+        double a = weight[idx[lo + random.nextInt(hi - lo)]];
+        double b = weight[idx[lo + random.nextInt(hi - lo)]];
+        double c = weight[idx[lo + random.nextInt(hi - lo)]];
+        double pivot = Math.max(Math.min(a, b), Math.min(Math.max(a, b), c));
+
+        int mid = partition(lo, hi, pivot, true);                 // [lo, mid) ≤ pivot
+        if (mid == hi) mid = partition(lo, hi, pivot, false);     // 全都 ≤ pivot：改用 < pivot
+        if (mid == lo || mid == hi) {                             // 全部權重相同，沒辦法再分
+            kruskal(lo, hi);
+            return;
+        }
+
+        filterKruskal(lo, mid);
+        if (accepted == N - 1) return;
+        filterKruskal(mid, filter(mid, hi));
+    }
+
+    // 把 idx[lo, hi) 分成 [lo, mid)「≤ pivot（或 < pivot）」和 [mid, hi)，回傳 mid
+    private int partition(int lo, int hi, double pivot, boolean inclusive) {
+        int i = lo, j = hi - 1;
+        while (true) {
+            while (i <= j && (inclusive ? weight[idx[i]] <= pivot : weight[idx[i]] < pivot)) i++;
+            while (i <= j && (inclusive ? weight[idx[j]] > pivot : weight[idx[j]] >= pivot)) j--;
+            if (i >= j) return i;
+            int t = idx[i]; idx[i] = idx[j]; idx[j] = t;
+        }
+    }
+
+    // 丟掉兩端已經連通的邊，剩下的往前擠，回傳新的 hi
+    private int filter(int lo, int hi) {
+        int k = lo;
+        for (int i = lo; i < hi; i++) {
+            int e = idx[i];
+            if (!uf.connected(from[e], to[e])) idx[k++] = e;
+        }
+        return k;
+    }
+
+    // 排序 idx[lo, hi) 後依序掃描
+    private void kruskal(int lo, int hi) {
+        sortByWeight(lo, hi);
+        for (int i = lo; i < hi && accepted < N - 1; i++) {
+            int e = idx[i];
+            int p = from[e], q = to[e];
+            if (uf.connected(p, q)) continue;
+            uf.union(p, q);
+            accepted++;
+            total += weight[e];
+            if (sink != null) sink.accept(p, q, weight[e]);
+        }
+    }
+
+    // 平行排序：高 32 位元是 float 權重的可排序位元，低 32 位元是邊索引
+    private void sortByWeight(int lo, int hi) {
+        int n = hi - lo;
+        long[] keys = new long[n];
+        for (int i = 0; i < n; i++) {
+            int e = idx[lo + i];
+            keys[i] = ((long) sortableBits((float) weight[e]) << 32) | (e & 0xffffffffL);
+        }
+        Arrays.parallelSort(keys);
+        for (int i = 0; i < n; i++) idx[lo + i] = (int) keys[i];
+
+        // float 相同的一段再依 double 權重排序；很多不同的 double 可能捨入成同一個 float（例如 1e9 + 小數）
+        for (int i = 0, j; i < n; i = j) {
+            for (j = i + 1; j < n && (keys[j] >>> 32) == (keys[i] >>> 32); j++) { }
+            if (j - i > 1) sortExact(lo + i, lo + j);
+        }
+    }
+
+    // 依 double 權重排序 idx[lo, hi)：三向切分的 quicksort，遞迴較小的一邊、迴圈處理較大的一邊
+    private void sortExact(int lo, int hi) {
+        while (hi - lo > INSERTION_CUTOFF) {
+            double v = weight[idx[lo + random.nextInt(hi - lo)]];
+            int lt = lo, i = lo, gt = hi - 1;                 // [lo, lt) < v，[lt, i) == v，(gt, hi) > v
+            while (i <= gt) {
+                int cmp = Double.compare(weight[idx[i]], v);
+                if      (cmp < 0) swap(lt++, i++);
+                else if (cmp > 0) swap(i, gt--);
+                else              i++;
+            }
+            if (lt - lo < hi - gt - 1) {
+                sortExact(lo, lt);
+                lo = gt + 1;
+            } else {
+                sortExact(gt + 1, hi);
+                hi = lt;
+            }
+        }
+        for (int i = lo + 1; i < hi; i++) {
+            int e = idx[i];
+            int j = i - 1;
+            while (j >= lo && Double.compare(weight[idx[j]], weight[e]) > 0) {
+                idx[j + 1] = idx[j];
+                j--;
+            }
+            idx[j + 1] = e;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int t = idx[i]; idx[i] = idx[j]; idx[j] = t;
+    }
+
+    // 讓 float 的位元可以直接當有號整數比大小（負數要把數值位元反過來）
+    private static int sortableBits(float f) {
+        int bits = Float.floatToIntBits(f);
+        return bits ^ ((bits >> 31) & 0x7fffffff);
+    }
+
+    // 接受的邊數（上次 forest() 的結果）
+    public int acceptedEdges() {
+        return accepted;
+    }
+
+    public static void main(String[] args) {
+        int N = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int M = args.length > 1 ? Integer.parseInt(args[1]) : 10 * N;
+        run(N, M, 0, 1);
+
+        // 權重 1e9 + U[0, 32)：float 在 1e9 附近的間距是 64，幾乎所有邊都捨入成同一個 float
+        System.out.println();
+        run(20_000, 200_000, 1e9, 32);
+    }
+
+    // 隨機連通圖，權重 base + U[0, spread)；檢查兩種方法的總權重一致、plainKruskal 依權重順序接受邊
+    private static void run(int N, int M, double base, double spread) {
+        Random random = new Random(42);
+        KruskalMST mst = new KruskalMST(N);
+        for (int i = 1; i < N; i++) mst.addEdge(random.nextInt(i), i, base + spread * random.nextDouble());  // 保證連通
+        for (int k = N - 1; k < M; k++) mst.addEdge(random.nextInt(N), random.nextInt(N), base + spread * random.nextDouble());
+
+        long start = System.nanoTime();
+        double[] last = { Double.NEGATIVE_INFINITY };
+        boolean[] ordered = { true };
+        double plain = mst.plainKruskal((p, q, w) -> {
+            if (w < last[0]) ordered[0] = false;
+            last[0] = w;
+        });
+        System.out.printf("N=%d, M=%d, 權重 %.0f + U[0, %.0f)%n", N, M, base, spread);
+        System.out.printf("Kruskal（全部排序）: %8.1f ms, 總權重 %.6f%n", (System.nanoTime() - start) / 1e6, plain);
+        if (!ordered[0]) throw new IllegalStateException("Kruskal 接受邊的順序不是依權重排序");
+
+        start = System.nanoTime();
+        double[] checksum = new double[1];
+        double filtered = mst.forest((p, q, w) -> checksum[0] += w);
+        System.out.printf("filter-Kruskal     : %8.1f ms, 總權重 %.6f, 邊數 %d%n",
+                (System.nanoTime() - start) / 1e6, filtered, mst.acceptedEdges());
+
+        if (Math.abs(plain - filtered) > 1e-6 * Math.max(1, plain) || Math.abs(checksum[0] - filtered) > 1e-6 * Math.max(1, plain)) {
+            throw new IllegalStateException("兩種方法的總權重不同");
+        }
+        System.out.println("兩種方法的總權重一致");
+    }
+}
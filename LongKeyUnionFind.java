@@ -0,0 +1,116 @@
+// 以任意 long（例如稀疏的 64 位元實體編號）當元素的 Union-Find，元素可以隨時出現
+// long → 連續索引 用開放定址（線性探測）的基本型別雜湊表，查詢不會 boxing；
+// 已經見過的鍵做 union / connected 完全不配置記憶體
+public class LongKeyUnionFind {
+    private long[] keys;       // 雜湊表的鍵
+    private int[] slots;       // 索引 + 1；0 表示這一格是空的
+    private int mask;          // keys.length - 1（容量是 2 的冪次）
+    private final GrowableWeightedQuickUnionUF uf = new GrowableWeightedQuickUnionUF();
+
+    public LongKeyUnionFind() {
+        keys = new long[16];
+        slots = new int[16];
+        mask = 15;
+    }
+
+    // 把 64 位元打散（SplitMix64 的 finalizer），讓連續或有規律的編號也平均分布
+    private static int hash(long key) {
+        key = (key ^ (key >>> 30)) * 0xbf58476d1ce4e5b9L;
+        key = (key ^ (key >>> 27)) * 0x94d049bb133111ebL;
+        return (int) (key ^ (key >>> 31));
+    }
+
+    // 回傳 key 的索引；不存在時回傳 -1
+    public int indexOf(long key) {
+        for (int i = hash(key) & mask; slots[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) return slots[i] - 1;
+        }
+        return -1;
+    }
+
+    // 回傳 key 的索引；不存在時加入新元素
+    public int index(long key) {
+        int i = hash(key) & mask;
+        for (; slots[i] != 0; i = (i + 1) & mask) {
+            if (keys[i] == key) return slots[i] - 1;
+        }
+        int index = uf.add();
+        keys[i] = key;
+        slots[i] = index + 1;
+        if (2 * uf.size() > keys.length) rehash();   // 負載因子超過 1/2 就加倍
+        return index;
+    }
+
+    private void rehash() {
+        long[] oldKeys = keys;
+        int[] oldSlots = slots;
+        keys = new long[2 * oldKeys.length];
+        slots = new int[keys.length];
+        mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldSlots[j] == 0) continue;
+            int i = hash(oldKeys[j]) & mask;
+            while (slots[i] != 0) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            slots[i] = oldSlots[j];
+        }
+    }
+
+    // 合併 p 和 q（沒見過的鍵會自動加入）
+    public void union(long p, long q) {
+        uf.union(index(p), index(q));
+    }
+
+    // 判斷 p 和 q 是否連通（沒見過的鍵只和自己連通）
+    public boolean connected(long p, long q) {
+        if (p == q) return true;
+        int i = indexOf(p), j = indexOf(q);
+        return i >= 0 && j >= 0 && uf.connected(i, j);
+    }
+
+    // p 所在連通塊的大小（沒見過的鍵是 1）
+    public int componentSize(long p) {
+        int i = indexOf(p);
+        return i < 0 ? 1 : uf.componentSize(i);
+    }
+
+    // 見過的鍵數
+    public int size() {
+        return uf.size();
+    }
+
+    // 見過的鍵組成的連通塊個數
+    public int count() {
+        return uf.count();
+    }
+
+    public static void main(String[] args) {
+        LongKeyUnionFind uf = new LongKeyUnionFind();
+        uf.union(9_000_000_000_001L, -42L);
+        uf.union(-42L, 123_456_789_012L);
+        uf.union(7L, 8L);
+        System.out.println("Connected(9000000000001, 123456789012)? " + uf.connected(9_000_000_000_001L, 123_456_789_012L));  // true
+        System.out.println("Connected(7, -42)? " + uf.connected(7L, -42L));                                                   // false
+        System.out.println("Size = " + uf.size() + ", Count = " + uf.count());                                                // 5, 2
+
+        // 大量稀疏鍵：量測並確認已見過的鍵做 union 不配置記憶體
+        int M = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        java.util.SplittableRandom random = new java.util.SplittableRandom(42);
+        long[] ids = new long[M / 2];
+        for (int i = 0; i < ids.length; i++) ids[i] = random.nextLong();
+        LongKeyUnionFind big = new LongKeyUnionFind();
+        long start = System.nanoTime();
+        for (int k = 0; k < M; k++) big.union(ids[random.nextInt(ids.length)], ids[random.nextInt(ids.length)]);
+        System.out.printf("%d 次 union（新鍵陸續出現）: %.1f ms, size=%d, count=%d%n",
+                M, (System.nanoTime() - start) / 1e6, big.size(), big.count());
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        long self = Thread.currentThread().threadId();
+        for (int i = 0; i < ids.length; i++) big.index(ids[i]);   // 確保所有鍵都見過
+        long before = threads.getThreadAllocatedBytes(self);
+        start = System.nanoTime();
+        for (int k = 0; k < M; k++) big.union(ids[random.nextInt(ids.length)], ids[random.nextInt(ids.length)]);
+        System.out.printf("%d 次 union（鍵都見過）: %.1f ms, 配置 %d bytes%n",
+                M, (System.nanoTime() - start) / 1e6, threads.getThreadAllocatedBytes(self) - before);
+    }
+}
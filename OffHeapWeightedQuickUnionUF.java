@@ -0,0 +1,138 @@
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+// 加權合併 + 路徑壓縮的 Union-Find，但是：
+//   - 元素編號是 long，可以超過 2^31 個元素
+//   - id[] 和 size[] 存在 heap 之外（direct buffer），切成固定大小的區段，GC 幾乎看不到它們
+// 兩個小技巧讓建構子不必逐一初始化幾十億個元素（direct buffer 配置時全部是 0）：
+//   - 父節點存成 (parent + 1)，0 代表「自己就是根」
+//   - 大小存成 (size - 1)，0 代表大小為 1
+public class OffHeapWeightedQuickUnionUF {
+    private static final int SEGMENT_BITS = 27;                        // 每個區段 2^27 個元素（每個陣列 1 GB）
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+    private final long N;
+    private final LongBuffer[] id;    // 儲存每個元素的父節點（+1 編碼）
+    private final LongBuffer[] size;  // 儲存每棵樹的大小（-1 編碼，只有根的值有意義）
+    private long count;               // 目前的連通塊個數
+
+    // 初始化陣列
+    public OffHeapWeightedQuickUnionUF(long N) {
+        if (N < 0) throw new IllegalArgumentException("N 不能是負數: " + N);
+        this.N = N;
+        this.count = N;
+        int segments = (int) ((N + SEGMENT_MASK) >>> SEGMENT_BITS);
+        id = new LongBuffer[segments];
+        size = new LongBuffer[segments];
+        for (int s = 0; s < segments; s++) {
+            long elements = Math.min(N - ((long) s << SEGMENT_BITS), 1L << SEGMENT_BITS);
+            id[s] = allocate(elements);
+            size[s] = allocate(elements);
+        }
+    }
+
+    private static LongBuffer allocate(long elements) {
+        return ByteBuffer.allocateDirect((int) (elements * Long.BYTES)).order(ByteOrder.nativeOrder()).asLongBuffer();
+    }
+
+    private long parent(long i) {
+        long stored = id[(int) (i >>> SEGMENT_BITS)].get((int) (i & SEGMENT_MASK));
+        return stored == 0 ? i : stored - 1;
+    }
+
+    private void setParent(long i, long p) {
+        id[(int) (i >>> SEGMENT_BITS)].put((int) (i & SEGMENT_MASK), p == i ? 0 : p + 1);
+    }
+
+    private long sizeOf(long root) {
+        return size[(int) (root >>> SEGMENT_BITS)].get((int) (root & SEGMENT_MASK)) + 1;
+    }
+
+    private void setSize(long root, long s) {
+        size[(int) (root >>> SEGMENT_BITS)].put((int) (root & SEGMENT_MASK), s - 1);
+    }
+
+    private void validate(long p) {
+        if (p < 0 || p >= N) throw new IndexOutOfBoundsException("元素 " + p + " 不在 0 到 " + (N - 1) + " 之間");
+    }
+
+    // 找到根節點（使用路徑壓縮）
+    public long find(long i) {
+        validate(i);
+        long p = parent(i);
+        while (i != p) {
+            long grand = parent(p);
+            setParent(i, grand);  // 將節點 i 直接連接到它的祖父節點
+            i = grand;
+            p = parent(i);
+        }
+        return i;
+    }
+
+    // 判斷 p 和 q 是否連通
+    public boolean connected(long p, long q) {
+        return find(p) == find(q);  // 判斷兩個元素的根是否相同
+    }
+
+    // 加權合併 union()：將小樹掛到大樹上
+    public void union(long p, long q) {
+        long rootP = find(p);  // 找到 p 的根節點
+        long rootQ = find(q);  // 找到 q 的根節點
+
+        if (rootP == rootQ) return;  // 如果已經連通，直接返回
+
+        long sizeP = sizeOf(rootP);
+        long sizeQ = sizeOf(rootQ);
+        if (sizeP < sizeQ) {
+            setParent(rootP, rootQ);       // 將較小的樹掛到較大的樹上
+            setSize(rootQ, sizeP + sizeQ);  // 更新新根節點的大小
+        } else {
+            setParent(rootQ, rootP);       // 將 rootQ 掛到 rootP
+            setSize(rootP, sizeP + sizeQ);  // 更新新根節點的大小
+        }
+        count--;
+    }
+
+    // 目前的連通塊個數
+    public long count() {
+        return count;
+    }
+
+    // 元素個數
+    public long size() {
+        return N;
+    }
+
+    // main() 方法：先跑和 WeightedQuickUnionPathCompressionUF 相同的示範，再跑一個超過 2^31 個元素的例子
+    public static void main(String[] args) {
+        OffHeapWeightedQuickUnionUF uf = new OffHeapWeightedQuickUnionUF(10);
+        uf.union(4, 3);
+        uf.union(3, 8);
+        uf.union(6, 5);
+        uf.union(9, 4);
+        uf.union(2, 1);
+        uf.union(5, 0);
+        uf.union(7, 2);
+        uf.union(6, 1);
+        uf.union(1, 0);
+        uf.union(6, 7);
+        System.out.println("Connected(0, 7)? " + uf.connected(0, 7));  // true
+        System.out.println("Connected(8, 9)? " + uf.connected(8, 9));  // true
+        System.out.println("Connected(5, 4)? " + uf.connected(5, 4));  // false
+        System.out.println("Count = " + uf.count());                   // 2
+
+        // 需要約 16 bytes × N 的 direct memory，例如 -XX:MaxDirectMemorySize=40g
+        if (args.length > 0) {
+            long N = Long.parseLong(args[0]);   // 例如 3000000000
+            long start = System.nanoTime();
+            OffHeapWeightedQuickUnionUF big = new OffHeapWeightedQuickUnionUF(N);
+            java.util.SplittableRandom random = new java.util.SplittableRandom(42);
+            long M = args.length > 1 ? Long.parseLong(args[1]) : 10_000_000L;
+            for (long k = 0; k < M; k++) big.union(random.nextLong(N), random.nextLong(N));
+            big.union(0, N - 1);
+            System.out.printf("N=%d, M=%d, count=%d, connected(0, N-1)=%b, %.1f s%n",
+                    N, M, big.count(), big.connected(0, N - 1), (System.nanoTime() - start) / 1e9);
+        }
+    }
+}
@@ -0,0 +1,231 @@
+import java.util.HashMap;
+import java.util.Random;
+
+/*
+ * 可以刪邊的動態連通性（離線版，divide and conquer over time）
+ *
+ * 作法：
+ *   - 先把整條時間線（加邊、刪邊、connected 查詢）全部記下來，每個操作佔一個時間點
+ *   - 每條邊存活的時間是一個區間 [加入, 刪除)，把它掛到「時間線段樹」上 O(log Q) 個節點
+ *   - 在線段樹上做 DFS：進入節點時 union 掛在上面的邊，離開時 rollback
+ *     走到葉子（某個時間點）時，UF 裡恰好是那個時刻存活的邊 → 直接回答查詢
+ *   - UF 用 RollbackWeightedQuickUnionUF（加權合併、不做路徑壓縮，才能 rollback）
+ *
+ * 複雜度：每條邊出現在 O(log Q) 個節點，每次 union/connected 是 O(log N)
+ *        → 總共 O((N + Q) log Q · log N)，取代每次刪邊都重建的 O(Q·E)
+ */
+public class OfflineDynamicConnectivity {
+    private final int N;
+
+    // 時間線：每個時間點的操作
+    private static final byte ADD = 0, REMOVE = 1, QUERY = 2;
+    private byte[] type = new byte[16];
+    private int[] opP = new int[16];
+    private int[] opQ = new int[16];
+    private int T;                                             // 目前的時間點數
+
+    // 邊 → 目前重數與最早仍存活的加入時間（重邊：重數從 0→1 開始存活，1→0 結束）
+    private final HashMap<Long, int[]> open = new HashMap<>(); // {重數, 開始時間}
+
+    // 存活區間
+    private int[] ivFrom = new int[16], ivTo = new int[16], ivP = new int[16], ivQ = new int[16];
+    private int intervals;
+
+    private int queries;                                       // 查詢個數
+
+    public OfflineDynamicConnectivity(int N) {
+        this.N = N;
+    }
+
+    private static long key(int p, int q) {
+        int a = Math.min(p, q), b = Math.max(p, q);
+        return ((long) a << 32) | (b & 0xffffffffL);
+    }
+
+    private void validate(int p) {
+        if (p < 0 || p >= N) throw new IndexOutOfBoundsException("元素 " + p + " 不在 0 到 " + (N - 1) + " 之間");
+    }
+
+    private int record(byte t, int p, int q) {
+        validate(p);
+        validate(q);
+        if (T == type.length) {
+            type = java.util.Arrays.copyOf(type, 2 * T);
+            opP = java.util.Arrays.copyOf(opP, 2 * T);
+            opQ = java.util.Arrays.copyOf(opQ, 2 * T);
+        }
+        type[T] = t;
+        opP[T] = p;
+        opQ[T] = q;
+        return T++;
+    }
+
+    private void addInterval(int from, int to, int p, int q) {
+        if (intervals == ivFrom.length) {
+            int n = 2 * intervals;
+            ivFrom = java.util.Arrays.copyOf(ivFrom, n);
+            ivTo = java.util.Arrays.copyOf(ivTo, n);
+            ivP = java.util.Arrays.copyOf(ivP, n);
+            ivQ = java.util.Arrays.copyOf(ivQ, n);
+        }
+        ivFrom[intervals] = from;
+        ivTo[intervals] = to;
+        ivP[intervals] = p;
+        ivQ[intervals] = q;
+        intervals++;
+    }
+
+    // 加入邊 p-q
+    public void addEdge(int p, int q) {
+        int t = record(ADD, p, q);
+        int[] e = open.computeIfAbsent(key(p, q), k -> new int[2]);
+        if (e[0]++ == 0) e[1] = t;
+    }
+
+    // 刪除邊 p-q（必須目前存在）
+    public void removeEdge(int p, int q) {
+        long k = key(p, q);
+        int[] e = open.get(k);
+        if (e == null) throw new IllegalArgumentException("邊 " + p + "-" + q + " 不存在，無法刪除");
+        int t = record(REMOVE, p, q);
+        if (--e[0] == 0) {
+            addInterval(e[1], t, p, q);
+            open.remove(k);
+        }
+    }
+
+    // 記下一個 connected(p, q) 查詢，回傳查詢編號（solve() 結果陣列的索引）
+    public int query(int p, int q) {
+        record(QUERY, p, q);
+        return queries++;
+    }
+
+    // 一次回答所有查詢，answers[i] 是第 i 個 query() 的結果
+    public boolean[] solve() {
+        boolean[] answers = new boolean[queries];
+        if (T == 0) return answers;
+
+        // 還沒刪除的邊，存活到時間線結束
+        int savedIntervals = intervals;
+        for (java.util.Map.Entry<Long, int[]> en : open.entrySet()) {
+            long k = en.getKey();
+            addInterval(en.getValue()[1], T, (int) (k >>> 32), (int) k);
+        }
+
+        // 把每個區間掛到線段樹節點上（用陣列串成鏈結串列，不建立物件）
+        int size = 1;
+        while (size < T) size <<= 1;
+        int[] head = new int[2 * size];
+        java.util.Arrays.fill(head, -1);
+        int[] next = new int[16], edge = new int[16];
+        int entries = 0;
+        for (int i = 0; i < intervals; i++) {
+            // 由下往上的線段樹區間分解：[from, to) 對應到 O(log T) 個節點
+            for (int lo = ivFrom[i] + size, hi = ivTo[i] + size; lo < hi; lo >>= 1, hi >>= 1) {
+                if ((lo & 1) == 1 || (hi & 1) == 1) {
+                    if (entries + 2 > next.length) {
+                        next = java.util.Arrays.copyOf(next, 2 * next.length);
+                        edge = java.util.Arrays.copyOf(edge, 2 * edge.length);
+                    }
+                    if ((lo & 1) == 1) { edge[entries] = i; next[entries] = head[lo]; head[lo++] = entries++; }
+                    if ((hi & 1) == 1) { edge[entries] = i; next[entries] = head[--hi]; head[hi] = entries++; }
+                }
+            }
+        }
+        intervals = savedIntervals;   // solve() 可以在之後繼續加操作再呼叫一次
+
+        // DFS（用明確的堆疊，避免遞迴）；進入節點 union，離開節點 rollback
+        RollbackWeightedQuickUnionUF uf = new RollbackWeightedQuickUnionUF(N);
+        int[] stack = new int[64];
+        int[] saved = new int[64];
+        int sp = 0, answer = 0;
+        stack[sp++] = 1;
+        while (sp > 0) {
+            int node = stack[sp - 1];
+            if (node > 0) {                          // 第一次進入
+                stack[sp - 1] = -node;
+                saved[sp - 1] = uf.checkpoint();
+                for (int e = head[node]; e != -1; e = next[e]) uf.union(ivP[edge[e]], ivQ[edge[e]]);
+                if (node >= size) {                  // 葉子 = 時間點 node - size
+                    int t = node - size;
+                    if (t < T && type[t] == QUERY) answers[answer++] = uf.connected(opP[t], opQ[t]);
+                } else {                             // 先推右子樹再推左子樹，才會照時間順序先處理左子樹
+                    if (sp + 2 > stack.length) {
+                        stack = java.util.Arrays.copyOf(stack, 2 * stack.length);
+                        saved = java.util.Arrays.copyOf(saved, 2 * saved.length);
+                    }
+                    int right = (node << 1) | 1;
+                    if (firstTime(right, size) < T) stack[sp++] = right;
+                    stack[sp++] = node << 1;
+                }
+            } else {                                 // 子樹處理完，離開
+                uf.rollback(saved[sp - 1]);
+                sp--;
+            }
+        }
+        return answers;
+    }
+
+    // 線段樹節點涵蓋的第一個時間點
+    private static int firstTime(int node, int size) {
+        while (node < size) node <<= 1;
+        return node - size;
+    }
+
+    // main() 方法：隨機時間線，和「每次查詢都從頭重建」的暴力法比對，並比較時間
+    public static void main(String[] args) {
+        int N = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int Q = args.length > 1 ? Integer.parseInt(args[1]) : 20000;
+        Random random = new Random(42);
+
+        OfflineDynamicConnectivity dc = new OfflineDynamicConnectivity(N);
+        int[][] ops = new int[Q][];
+        java.util.ArrayList<int[]> alive = new java.util.ArrayList<>();
+        for (int i = 0; i < Q; i++) {
+            int r = random.nextInt(3);
+            if (r == 1 && !alive.isEmpty()) {
+                int[] e = alive.remove(random.nextInt(alive.size()));
+                dc.removeEdge(e[0], e[1]);
+                ops[i] = new int[] { REMOVE, e[0], e[1] };
+            } else if (r == 2) {
+                int p = random.nextInt(N), q = random.nextInt(N);
+                dc.query(p, q);
+                ops[i] = new int[] { QUERY, p, q };
+            } else {
+                int p = random.nextInt(N), q = random.nextInt(N);
+                alive.add(new int[] { p, q });
+                dc.addEdge(p, q);
+                ops[i] = new int[] { ADD, p, q };
+            }
+        }
+
+        long start = System.nanoTime();
+        boolean[] answers = dc.solve();
+        double offlineMs = (System.nanoTime() - start) / 1e6;
+
+        // 暴力法：每次查詢都用目前的邊重建 WeightedQuickUnionUF
+        start = System.nanoTime();
+        java.util.ArrayList<int[]> edges = new java.util.ArrayList<>();
+        int a = 0;
+        for (int[] op : ops) {
+            if (op[0] == ADD) edges.add(new int[] { op[1], op[2] });
+            else if (op[0] == REMOVE) {
+                for (int k = 0; k < edges.size(); k++) {
+                    int[] e = edges.get(k);
+                    if (key(e[0], e[1]) == key(op[1], op[2])) { edges.remove(k); break; }
+                }
+            } else {
+                WeightedQuickUnionUF uf = new WeightedQuickUnionUF(N);
+                for (int[] e : edges) uf.union(e[0], e[1]);
+                if (uf.connected(op[1], op[2]) != answers[a]) throw new IllegalStateException("第 " + a + " 個查詢答案不同");
+                a++;
+            }
+        }
+        double bruteMs = (System.nanoTime() - start) / 1e6;
+
+        System.out.printf("N=%d, Q=%d, queries=%d%n", N, Q, answers.length);
+        System.out.printf("離線 divide and conquer: %8.1f ms%n", offlineMs);
+        System.out.printf("每次查詢重建           : %8.1f ms%n", bruteMs);
+        System.out.println("所有查詢答案一致");
+    }
+}
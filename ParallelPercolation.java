@@ -0,0 +1,130 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * 平行 Monte Carlo 估計 percolation 門檻（n×n 格子）
+ *
+ * 每次試驗：
+ *   - 格子 (r, c) 對應到 UF 的元素 r*n + c，另外加上虛擬的頂端 n*n 和底端 n*n+1
+ *   - 用隨機順序一格一格打開，和打開的鄰居 union，直到頂端和底端連通
+ *   - 門檻估計值 = 打開的格數 / n²
+ *   - 只用 boolean[] 記錄哪些格子打開、int[] 當打開的順序，沒有任何「每個格子一個物件」的配置
+ *   - open、order 和 UF 每個工作執行緒各配置一次，之後每次試驗只重設內容（UF 用 reset()）
+ *
+ * 平行：每個工作執行緒從根 SplittableRandom split() 出自己的亂數產生器，獨立跑試驗，
+ *      結果交給共用的累加器（Welford 演算法算平均與標準差）
+ * 串流：主執行緒每隔一段時間印出目前的平均、標準差、95% 信賴區間
+ * 提早停止：信賴區間半寬 ≤ 目標值（且至少跑了 minTrials 次）就停止所有執行緒
+ *
+ * 執行：
+ *   java ParallelPercolation                 // n=200, 半寬 0.0005
+ *   java ParallelPercolation 1000 0.0002     // n=1000, 半寬 0.0002
+ *   java ParallelPercolation 200 0 10000     // 不提早停止，固定 10000 次試驗
+ */
+public class ParallelPercolation {
+    private static final double CONFIDENCE_95 = 1.96;
+
+    private final int n;
+
+    // 共用的累加器（Welford）
+    private long trials;
+    private double mean, m2;
+
+    public ParallelPercolation(int n) {
+        if (n <= 0) throw new IllegalArgumentException("n 必須是正數: " + n);
+        this.n = n;
+    }
+
+    // 跑一次試驗，回傳門檻估計值；open、order 和 uf（n*n + 2 個元素）由呼叫端重複使用
+    double trial(SplittableRandom random, boolean[] open, int[] order, WeightedQuickUnionPathCompressionUF uf) {
+        int sites = n * n;
+        int top = sites, bottom = sites + 1;
+        uf.reset();
+        java.util.Arrays.fill(open, false);
+
+        for (int opened = 0; opened < sites; ) {
+            // 部分 Fisher-Yates：從還沒打開的 order[opened..] 隨機挑一格
+            int j = opened + random.nextInt(sites - opened);
+            int s = order[j];
+            order[j] = order[opened];
+            order[opened] = s;
+            opened++;
+
+            open[s] = true;
+            int r = s / n, c = s - r * n;
+            if (r == 0) uf.union(s, top);
+            if (r == n - 1) uf.union(s, bottom);
+            if (r > 0 && open[s - n]) uf.union(s, s - n);
+            if (r < n - 1 && open[s + n]) uf.union(s, s + n);
+            if (c > 0 && open[s - 1]) uf.union(s, s - 1);
+            if (c < n - 1 && open[s + 1]) uf.union(s, s + 1);
+
+            if (uf.connected(top, bottom)) return (double) opened / sites;
+        }
+        return 1.0;
+    }
+
+    private synchronized void add(double x) {
+        trials++;
+        double delta = x - mean;
+        mean += delta / trials;
+        m2 += delta * (x - mean);
+    }
+
+    private synchronized double[] snapshot() {
+        double stddev = trials > 1 ? Math.sqrt(m2 / (trials - 1)) : Double.NaN;
+        double half = CONFIDENCE_95 * stddev / Math.sqrt(trials);
+        return new double[] { trials, mean, stddev, half };
+    }
+
+    // 執行試驗直到：信賴區間半寬 ≤ targetHalfWidth（且 trials ≥ minTrials），或跑滿 maxTrials
+    // 回傳 {試驗次數, 平均, 標準差, 95% 信賴區間半寬}
+    public double[] run(int threads, double targetHalfWidth, long minTrials, long maxTrials, long reportMillis, long seed)
+            throws InterruptedException {
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicLong started = new AtomicLong();
+        SplittableRandom root = new SplittableRandom(seed);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            SplittableRandom random = root.split();
+            workers[t] = new Thread(() -> {
+                boolean[] open = new boolean[n * n];
+                int[] order = new int[n * n];
+                for (int i = 0; i < order.length; i++) order[i] = i;
+                WeightedQuickUnionPathCompressionUF uf = new WeightedQuickUnionPathCompressionUF(n * n + 2);
+                while (!stop.get() && started.getAndIncrement() < maxTrials) add(trial(random, open, order, uf));
+            }, "percolation-" + t);
+            workers[t].start();
+        }
+
+        long start = System.nanoTime();
+        while (true) {
+            boolean alive = false;
+            for (Thread w : workers) {
+                w.join(reportMillis / threads + 1);
+                alive |= w.isAlive();
+            }
+            double[] s = snapshot();
+            System.out.printf("%6.1f s  trials=%-8d mean=%.6f  stddev=%.6f  95%% CI=[%.6f, %.6f]%n",
+                    (System.nanoTime() - start) / 1e9, (long) s[0], s[1], s[2], s[1] - s[3], s[1] + s[3]);
+            if (!alive) return s;
+            if (targetHalfWidth > 0 && s[0] >= minTrials && s[3] <= targetHalfWidth) {
+                stop.set(true);
+                for (Thread w : workers) w.join();
+                return snapshot();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int n = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        double target = args.length > 1 ? Double.parseDouble(args[1]) : 0.0005;
+        long maxTrials = args.length > 2 ? Long.parseLong(args[2]) : Long.MAX_VALUE;
+        int threads = Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("n=%d, threads=%d, 目標半寬=%s%n", n, threads, target > 0 ? target : "不提早停止");
+        double[] s = new ParallelPercolation(n).run(threads, target, 30, maxTrials, 1000, 42);
+        System.out.printf("結果: trials=%d, 門檻 ≈ %.6f ± %.6f（95%%）%n", (long) s[0], s[1], s[3]);
+    }
+}
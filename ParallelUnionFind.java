@@ -0,0 +1,187 @@
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// 大量邊一次匯入用的平行 Union-Find（Afforest 的想法）：
+//   1) 先平行合併一小部分抽樣的邊，通常就足以把「巨大連通塊」連起來
+//   2) 全部壓縮到根，再抽樣找出出現最多次的根 → 巨大連通塊的代表 giant
+//   3) 平行處理剩下的邊；giant 被「釘住」：合併時其他根一律掛到 giant 下面，giant 一直是根，
+//      所以第 2 步壓縮過的元素，父節點就是 giant → 兩端的父節點都是 giant 的邊直接跳過（各讀一次陣列，不用 find）
+//   Afforest 原本只看一端，是因為它走的是鄰接串列、每條邊兩個方向都會看到；
+//   這裡的邊串列每條邊只出現一次，只看一端會漏掉「一端在巨大連通塊、另一端不在」的邊，所以兩端都要看
+// 底層用 ConcurrentQuickUnionUF（CAS 合併），所以不管邊的處理順序如何，最後的分群都和循序版相同
+public class ParallelUnionFind implements UnionFind {
+    private static final int THRESHOLD = 1 << 14;    // 每個 fork-join 子任務至少處理的邊數 / 元素數
+    private static final int SAMPLE_STRIDE = 8;      // 第一階段每 SAMPLE_STRIDE 條邊取 1 條
+    private static final int GIANT_SAMPLES = 1024;   // 估計巨大連通塊時抽樣的元素個數
+
+    private final int N;
+    private final ConcurrentQuickUnionUF uf;
+    private final ForkJoinPool pool;
+
+    // 使用共用的 ForkJoinPool（所有核心）
+    public ParallelUnionFind(int N) {
+        this(N, ForkJoinPool.commonPool());
+    }
+
+    // 指定 ForkJoinPool（方便量測不同核心數的加速比）
+    public ParallelUnionFind(int N, ForkJoinPool pool) {
+        this.N = N;
+        this.uf = new ConcurrentQuickUnionUF(N);
+        this.pool = pool;
+    }
+
+    // 判斷 p 和 q 是否連通
+    public boolean connected(int p, int q) {
+        return uf.connected(p, q);
+    }
+
+    // 單筆合併
+    public void union(int p, int q) {
+        uf.union(p, q);
+    }
+
+    // 一次合併所有的邊 (p[k], q[k])
+    public void unionAll(int[] p, int[] q) {
+        if (p.length != q.length) throw new IllegalArgumentException("p 和 q 長度不同");
+        int M = p.length;
+
+        // 1) 抽樣的邊：k % SAMPLE_STRIDE == 0
+        pool.invoke(new UnionTask(p, q, 0, M, SAMPLE_STRIDE, -1));
+
+        // 2) 壓縮後抽樣找出巨大連通塊的根
+        pool.invoke(new CompressTask(null, 0, N));
+        int giant = mostFrequentRoot();
+
+        // 3) 剩下的邊，跳過兩端都已在巨大連通塊的邊
+        pool.invoke(new UnionTask(p, q, 0, M, -SAMPLE_STRIDE, giant));
+    }
+
+    // 回傳每個元素的連通塊標籤（同一個連通塊的元素標籤相同，標籤就是該連通塊根的索引）
+    public int[] componentLabels() {
+        int[] labels = new int[N];
+        pool.invoke(new CompressTask(labels, 0, N));
+        return labels;
+    }
+
+    // 隨機抽樣 GIANT_SAMPLES 個元素，回傳出現最多次的根
+    private int mostFrequentRoot() {
+        if (N == 0) return -1;
+        Random random = new Random(N);
+        int[] roots = new int[GIANT_SAMPLES];
+        for (int s = 0; s < GIANT_SAMPLES; s++) roots[s] = uf.find(random.nextInt(N));
+        java.util.Arrays.sort(roots);
+        int best = roots[0], bestCount = 0;
+        for (int s = 0, run = 0; s < GIANT_SAMPLES; s++) {
+            run = (s > 0 && roots[s] == roots[s - 1]) ? run + 1 : 1;
+            if (run > bestCount) { best = roots[s]; bestCount = run; }
+        }
+        return best;
+    }
+
+    // 平行合併 [lo, hi) 範圍內的邊
+    //   stride > 0 ：只處理 k % stride == 0 的邊
+    //   stride < 0 ：只處理 k % -stride != 0 的邊（也就是第一階段沒做過的）
+    //   giant >= 0 ：兩端的父節點都是 giant 就跳過；合併時 giant 永遠當根
+    private final class UnionTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] p, q;
+        private final int lo, hi, stride, giant;
+
+        UnionTask(int[] p, int[] q, int lo, int hi, int stride, int giant) {
+            this.p = p; this.q = q; this.lo = lo; this.hi = hi; this.stride = stride; this.giant = giant;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > THRESHOLD) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new UnionTask(p, q, lo, mid, stride, giant),
+                          new UnionTask(p, q, mid, hi, stride, giant));
+                return;
+            }
+            if (stride > 0) {
+                int k = lo + Math.floorMod(-lo, stride);   // 第一個 >= lo 且是 stride 倍數的 k
+                for (; k < hi; k += stride) uf.union(p[k], q[k]);
+                return;
+            }
+            int skip = -stride;
+            for (int k = lo; k < hi; k++) {
+                if (k % skip == 0) continue;
+                if (giant >= 0 && uf.parent(p[k]) == giant && uf.parent(q[k]) == giant) continue;
+                uf.union(p[k], q[k], giant);
+            }
+        }
+    }
+
+    // 平行把 [lo, hi) 的元素壓縮到根；labels 不是 null 時順便寫出根
+    private final class CompressTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] labels;
+        private final int lo, hi;
+
+        CompressTask(int[] labels, int lo, int hi) {
+            this.labels = labels; this.lo = lo; this.hi = hi;
+        }
+
+        @Override
+        protected void compute() {
+            if (hi - lo > THRESHOLD) {
+                int mid = (lo + hi) >>> 1;
+                invokeAll(new CompressTask(labels, lo, mid), new CompressTask(labels, mid, hi));
+                return;
+            }
+            for (int i = lo; i < hi; i++) {
+                int r = uf.find(i);
+                if (labels != null) labels[i] = r;
+            }
+        }
+    }
+
+    // main() 方法：和 WeightedQuickUnionUF 比對分群結果，並量測 1、2、4、... 個核心的時間
+    public static void main(String[] args) {
+        int N = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int M = args.length > 1 ? Integer.parseInt(args[1]) : 2 * N;
+
+        Random random = new Random(42);
+        int[] p = new int[M];
+        int[] q = new int[M];
+        for (int k = 0; k < M; k++) {
+            p[k] = random.nextInt(N);
+            q[k] = random.nextInt(N);
+        }
+
+        // 循序基準
+        long start = System.nanoTime();
+        WeightedQuickUnionUF expected = new WeightedQuickUnionUF(N);
+        for (int k = 0; k < M; k++) expected.union(p[k], q[k]);
+        System.out.printf("N=%d, M=%d%n", N, M);
+        System.out.printf("WeightedQuickUnionUF 循序 : %8.1f ms%n", (System.nanoTime() - start) / 1e6);
+
+        int cores = Runtime.getRuntime().availableProcessors();
+        for (int threads = 1; ; threads = Math.min(2 * threads, cores)) {
+            ForkJoinPool pool = new ForkJoinPool(threads);
+            start = System.nanoTime();
+            ParallelUnionFind uf = new ParallelUnionFind(N, pool);
+            uf.unionAll(p, q);
+            int[] labels = uf.componentLabels();
+            System.out.printf("ParallelUnionFind %2d 核心: %8.1f ms%n", threads, (System.nanoTime() - start) / 1e6);
+            pool.shutdown();
+
+            // 比對：同標籤 ⇒ 循序版連通；每條邊兩端標籤相同 ⇒ 循序版連通的也一定同標籤
+            int[] first = new int[N];
+            java.util.Arrays.fill(first, -1);
+            for (int i = 0; i < N; i++) {
+                if (first[labels[i]] == -1) first[labels[i]] = i;
+                else if (!expected.connected(i, first[labels[i]])) throw new IllegalStateException("多合併了元素 " + i);
+            }
+            for (int k = 0; k < M; k++) {
+                if (labels[p[k]] != labels[q[k]]) throw new IllegalStateException("漏合併了邊 " + p[k] + " " + q[k]);
+            }
+            if (threads == cores) break;
+        }
+        System.out.println("分群結果與 WeightedQuickUnionUF 一致");
+    }
+}
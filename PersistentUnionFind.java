@@ -0,0 +1,160 @@
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
+
+// 可以快速重啟的 Union-Find：快照 + 只會往後追加的合併日誌
+//   - 目錄下有 uf.snapshot（WeightedQuickUnionPathCompressionUF.save() 的格式）和 uf.log
+//   - union() 先把 (p, q) 追加到日誌，再更新記憶體中的結構
+//   - checkpoint() 寫出新快照並清空日誌
+//   - 重啟時：載入快照（時間只和檔案大小有關）+ 重播上次快照之後的少量日誌
+// 日誌重播是冪等的：checkpoint() 在改名快照之後、清空日誌之前當機，重播舊日誌也不會出錯
+public class PersistentUnionFind implements UnionFind, Closeable {
+    private static final String SNAPSHOT = "uf.snapshot";
+    private static final String LOG = "uf.log";
+
+    private final Path dir;
+    private WeightedQuickUnionPathCompressionUF uf;
+    private DataOutputStream log;   // 每筆 8 bytes：p、q（big-endian int）
+    private long logged;            // 上次快照之後寫進日誌的合併數
+
+    private PersistentUnionFind(Path dir, WeightedQuickUnionPathCompressionUF uf) throws IOException {
+        this.dir = dir;
+        this.uf = uf;
+        this.log = openLog(false);
+    }
+
+    // 開啟目錄：有快照就載入並重播日誌，否則建立 N 個元素的新結構；快照的元素個數必須是 N
+    public static PersistentUnionFind open(Path dir, int N) throws IOException {
+        Files.createDirectories(dir);
+        Path snapshot = dir.resolve(SNAPSHOT);
+        WeightedQuickUnionPathCompressionUF uf = Files.exists(snapshot)
+                ? WeightedQuickUnionPathCompressionUF.load(snapshot)
+                : new WeightedQuickUnionPathCompressionUF(N);
+        if (uf.size() != N) throw new IOException("快照的元素個數 " + uf.size() + " 和要求的 " + N + " 不同: " + snapshot);
+        long replayed = replay(dir.resolve(LOG), uf);
+        PersistentUnionFind puf = new PersistentUnionFind(dir, uf);
+        puf.logged = replayed;
+        return puf;
+    }
+
+    // 重播日誌；最後一筆若只寫了一半（當機），就忽略它並把日誌截斷到完整的長度
+    private static long replay(Path logFile, WeightedQuickUnionPathCompressionUF uf) throws IOException {
+        if (!Files.exists(logFile)) return 0;
+        try (FileChannel ch = FileChannel.open(logFile, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long complete = ch.size() & ~7L;
+            for (long pos = 0; pos < complete; ) {
+                long len = Math.min(1L << 30, complete - pos);
+                ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, pos, len);
+                while (buf.remaining() >= 8) uf.union(buf.getInt(), buf.getInt());
+                pos += len;
+            }
+            if (complete != ch.size()) ch.truncate(complete);
+            return complete / 8;
+        }
+    }
+
+    private DataOutputStream openLog(boolean truncate) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(
+                new FileOutputStream(dir.resolve(LOG).toFile(), !truncate), 1 << 16));
+    }
+
+    // 判斷 p 和 q 是否連通
+    public boolean connected(int p, int q) {
+        return uf.connected(p, q);
+    }
+
+    // 合併：已連通的不寫日誌，其餘先寫日誌再合併
+    public void union(int p, int q) {
+        if (uf.connected(p, q)) return;
+        try {
+            log.writeInt(p);
+            log.writeInt(q);
+        } catch (IOException e) {
+            throw new IllegalStateException("寫入合併日誌失敗", e);
+        }
+        logged++;
+        uf.union(p, q);
+    }
+
+    // 把日誌緩衝區寫到檔案（呼叫端決定多久同步一次）
+    public void flush() throws IOException {
+        log.flush();
+    }
+
+    // 寫出新快照並清空日誌
+    public void checkpoint() throws IOException {
+        log.flush();
+        uf.save(dir.resolve(SNAPSHOT));
+        log.close();
+        log = openLog(true);
+        logged = 0;
+    }
+
+    // 上次快照之後的合併數（重啟時需要重播的筆數）
+    public long pendingLogEntries() {
+        return logged;
+    }
+
+    public void close() throws IOException {
+        log.close();
+    }
+
+    // main() 方法：建立、合併、快照、再合併，然後「重啟」並確認結果相同，順便量測啟動時間
+    public static void main(String[] args) throws IOException {
+        int N = args.length > 0 ? Integer.parseInt(args[0]) : 10_000_000;
+        int M = args.length > 1 ? Integer.parseInt(args[1]) : N;
+        Path dir = Files.createTempDirectory("uf");
+
+        Random random = new Random(42);
+        int[] ps = new int[M + M / 100];
+        int[] qs = new int[ps.length];
+        for (int k = 0; k < ps.length; k++) {
+            ps[k] = random.nextInt(N);
+            qs[k] = random.nextInt(N);
+        }
+
+        // 1) 從頭開始重播所有邊（舊的做法）
+        long start = System.nanoTime();
+        WeightedQuickUnionPathCompressionUF expected = new WeightedQuickUnionPathCompressionUF(N);
+        for (int k = 0; k < ps.length; k++) expected.union(ps[k], qs[k]);
+        System.out.printf("從頭重播 %d 條邊: %.1f ms%n", ps.length, (System.nanoTime() - start) / 1e6);
+
+        // 2) M 條邊後做快照，之後再合併 1% 的邊只寫日誌
+        try (PersistentUnionFind puf = PersistentUnionFind.open(dir, N)) {
+            for (int k = 0; k < M; k++) puf.union(ps[k], qs[k]);
+            puf.checkpoint();
+            for (int k = M; k < ps.length; k++) puf.union(ps[k], qs[k]);
+            System.out.println("快照之後的日誌筆數: " + puf.pendingLogEntries());
+        }
+
+        // 3) 重啟：載入快照 + 重播日誌
+        start = System.nanoTime();
+        try (PersistentUnionFind restarted = PersistentUnionFind.open(dir, N)) {
+            System.out.printf("快照 + 日誌重啟: %.1f ms（快照 %d bytes）%n",
+                    (System.nanoTime() - start) / 1e6, Files.size(dir.resolve(SNAPSHOT)));
+            for (int k = 0; k < ps.length; k++) {
+                if (!restarted.connected(ps[k], qs[k])) throw new IllegalStateException("重啟後遺失邊 " + ps[k] + " " + qs[k]);
+            }
+            for (int i = 1; i < N; i++) {
+                if (restarted.connected(i - 1, i) != expected.connected(i - 1, i)) throw new IllegalStateException("重啟後分群不同於元素 " + i);
+            }
+        }
+        System.out.println("重啟後的結果與從頭重播一致");
+
+        // 4) 用不同的 N 開啟同一個目錄：必須拒絕，而不是默默載入別的大小
+        try {
+            PersistentUnionFind.open(dir, N + 1).close();
+            throw new IllegalStateException("元素個數不同的快照應該被拒絕");
+        } catch (IOException e) {
+            System.out.println("N 不符時拒絕開啟：" + e.getMessage());
+        }
+    }
+}
@@ -1,6 +1,8 @@
-public class QuickUnionUF {
+public class QuickUnionUF implements UnionFind {
     // private 是只有在這個 class 裡面可以使用 int[] id是一個陣列
     private int[] id;
+    // 統計（-Duf.stats=true 才會建立，否則是 null）
+    private final UnionFindStats stats;
 
     // 宣告一個 int 型別的陣列 id，這個陣列用來儲存每個元素的根節點。
     public QuickUnionUF(int N) {
@@ -9,12 +11,17 @@ public class QuickUnionUF {
         // 當 int i從0到N-1時，id[i] = i，這樣 id 陣列的每個元素都指向自己。i++是自動加1。
         for (int i = 0; i < N; i++)
             id[i] = i;
+        stats = UnionFindStats.ENABLED ? new UnionFindStats(N) : null;
     }
 
     private int root(int i) {
+        int steps = 0; // steps 只給統計用，關閉統計時 JIT 會把它消掉
         // while迴圈的條件是 i != id[i]，這表示當前元素 i 的根節點不是它自己時，就繼續尋找。
-        while (i != id[i])
+        while (i != id[i]) {
             i = id[i];
+            steps++;
+        }
+        if (UnionFindStats.ENABLED) stats.find(steps, 0);
         // return i; 是返回當前元素 i 的根節點。
         return i;
 
@@ -29,10 +36,16 @@ public class QuickUnionUF {
     public void union(int p, int q) {
         int i = root(p); // 尋找元素p的根節點
         int j = root(q); // 尋找元素q的根節點
+        if (UnionFindStats.ENABLED) stats.union(i, j);
         id[i] = j;
 
     }
 
+    // 統計資料；沒有用 -Duf.stats=true 開啟時回傳 null
+    public UnionFindStats stats() {
+        return stats;
+    }
+
     public static void main(String[] args) {
 
         QuickUnionUF uf = new QuickUnionUF(10); // 創建一個大小為10的QuickUnionUF物件
@@ -0,0 +1,102 @@
+import java.util.Random;
+
+// 讀取優化的 Quickfind：connected() 一樣是 O(1)（比較兩個標籤），
+// 但 union() 不再掃整個 id[]，只把「較小」連通塊的成員改成另一邊的標籤（small-to-large）
+// 每個元素每被改一次標籤，它所在的連通塊大小至少變兩倍 → 每個元素最多被改 lg N 次
+// → N-1 次 union 的總成本 O(N log N)
+public class ReadOptimizedQuickFindUF implements UnionFind {
+    private int[] id;    // 每個元素的標籤（同一個連通塊標籤相同）
+    private int[] size;  // 標籤 → 連通塊大小（只有當作標籤的索引有意義）
+    private int[] next;  // 同一個連通塊的成員串成環狀鏈結串列，改標籤時只走這個環
+    private int count;   // 連通塊個數
+
+    // 初始化陣列
+    public ReadOptimizedQuickFindUF(int N) {
+        id = new int[N];
+        size = new int[N];
+        next = new int[N];
+        count = N;
+        for (int i = 0; i < N; i++) {
+            id[i] = i;      // 一開始每個元素自己一個標籤
+            size[i] = 1;
+            next[i] = i;
+        }
+    }
+
+    // 判斷 p 和 q 是否連通：O(1)
+    public boolean connected(int p, int q) {
+        return id[p] == id[q];
+    }
+
+    // 元素 p 的標籤（相當於 find）
+    public int find(int p) {
+        return id[p];
+    }
+
+    // 合併：把較小連通塊的每個成員改成較大連通塊的標籤
+    public void union(int p, int q) {
+        int pid = id[p];
+        int qid = id[q];
+        if (pid == qid) return;
+
+        if (size[pid] > size[qid]) {   // 讓 pid 永遠是較小的那一邊
+            int t = pid; pid = qid; qid = t;
+            t = p; p = q; q = t;
+        }
+        int i = p;
+        do {
+            id[i] = qid;               // 只改較小那一邊的成員
+            i = next[i];
+        } while (i != p);
+        size[qid] += size[pid];
+
+        // 把兩個環接成一個
+        int t = next[p];
+        next[p] = next[q];
+        next[q] = t;
+        count--;
+    }
+
+    // 連通塊個數
+    public int count() {
+        return count;
+    }
+
+    // main() 方法：和 WeightedQuickUnionPathCompressionUF 比較，讀:寫 比例從 1:1 到 1000:1
+    public static void main(String[] args) {
+        int N = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int unions = N;                                  // 每個比例都做 N 次 union
+        int[] ratios = { 1, 10, 100, 1000 };
+
+        System.out.printf("N=%d, unions=%d%n", N, unions);
+        System.out.printf("%-10s %18s %18s%n", "讀:寫", "ReadOptimizedQF", "WQUPC");
+        for (int ratio : ratios) {
+            long ops = (long) unions * (ratio + 1);
+            double qf = run(new ReadOptimizedQuickFindUF(N), N, unions, ratio);
+            double wqupc = run(new WeightedQuickUnionPathCompressionUF(N), N, unions, ratio);
+            System.out.printf("%-10s %12.1f Mop/s %12.1f Mop/s%n", ratio + ":1", ops / qf / 1e6, ops / wqupc / 1e6);
+        }
+    }
+
+    // 每次 union 後接 ratio 次 connected 查詢，回傳秒數（隨機數先產生好，不算進時間）
+    private static double run(UnionFind uf, int N, int unions, int ratio) {
+        Random random = new Random(42);
+        int[] pairs = new int[1 << 21];                  // 查詢用的元素，循環使用
+        for (int k = 0; k < pairs.length; k++) pairs[k] = random.nextInt(N);
+        int[] edges = new int[2 * unions];
+        for (int k = 0; k < edges.length; k++) edges[k] = random.nextInt(N);
+
+        long hits = 0;
+        int mask = pairs.length - 1, at = 0;
+        long start = System.nanoTime();
+        for (int k = 0; k < unions; k++) {
+            uf.union(edges[2 * k], edges[2 * k + 1]);
+            for (int r = 0; r < ratio; r++, at = (at + 2) & mask) {
+                if (uf.connected(pairs[at], pairs[at + 1])) hits++;
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (hits == -1) System.out.println();            // 避免 JIT 把查詢整個消掉
+        return seconds;
+    }
+}
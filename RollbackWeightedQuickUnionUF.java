@@ -0,0 +1,94 @@
+// 可以「復原」的加權合併 Union-Find（以 WeightedQuickUnionUF 為基礎）
+// 不做路徑壓縮：每次 union 只改一個 id[] 和一個 size[]，記在堆疊上，rollback 時照相反順序還原
+// 因為加權合併讓樹高 ≤ lg N，root() 仍然是 O(log N)
+public class RollbackWeightedQuickUnionUF implements UnionFind {
+    private int[] id;       // 儲存每個元素的父節點
+    private int[] size;     // 儲存每棵樹的大小
+    private int[] history;  // 每次成功的 union 記下被掛上去的根（-1 表示這次 union 沒有改變任何東西）
+    private int top;        // 堆疊的大小（= 呼叫過幾次 union）
+    private int count;      // 連通塊個數
+
+    // 初始化陣列
+    public RollbackWeightedQuickUnionUF(int N) {
+        id = new int[N];
+        size = new int[N];
+        history = new int[16];
+        count = N;
+        for (int i = 0; i < N; i++) {
+            id[i] = i;      // 初始化時每個元素的根節點是自己
+            size[i] = 1;    // 每個集合的大小都是 1
+        }
+    }
+
+    // 找到根節點
+    private int root(int i) {
+        while (i != id[i]) {
+            i = id[i];  // 一直往上尋找，直到找到根節點
+        }
+        return i;
+    }
+
+    // 判斷 p 和 q 是否連通
+    public boolean connected(int p, int q) {
+        return root(p) == root(q);  // 判斷兩個元素的根是否相同
+    }
+
+    // 加權合併 union()：將小樹掛到大樹上，並記錄在堆疊上（已連通也記一筆，讓 rollback 的次數和 union 一一對應）
+    public void union(int p, int q) {
+        int rootP = root(p);  // 找到 p 的根節點
+        int rootQ = root(q);  // 找到 q 的根節點
+
+        if (top == history.length) history = java.util.Arrays.copyOf(history, 2 * top);
+        if (rootP == rootQ) {  // 如果已經連通，只記錄一筆空操作
+            history[top++] = -1;
+            return;
+        }
+
+        if (size[rootP] < size[rootQ]) { int t = rootP; rootP = rootQ; rootQ = t; }
+        id[rootQ] = rootP;             // 將較小的樹 rootQ 掛到較大的 rootP
+        size[rootP] += size[rootQ];    // 更新新根節點的大小
+        history[top++] = rootQ;
+        count--;
+    }
+
+    // 目前的操作數，之後可用 rollback(checkpoint) 回到這個狀態
+    public int checkpoint() {
+        return top;
+    }
+
+    // 撤銷最後一次 union
+    public void undo() {
+        int child = history[--top];
+        if (child == -1) return;
+        int parent = id[child];
+        size[parent] -= size[child];
+        id[child] = child;
+        count++;
+    }
+
+    // 撤銷到 checkpoint() 回傳的狀態
+    public void rollback(int checkpoint) {
+        while (top > checkpoint) undo();
+    }
+
+    // 連通塊個數
+    public int count() {
+        return count;
+    }
+
+    // main() 方法：合併後再復原，確認回到原本的狀態
+    public static void main(String[] args) {
+        RollbackWeightedQuickUnionUF uf = new RollbackWeightedQuickUnionUF(10);
+        uf.union(4, 3);
+        uf.union(3, 8);
+        int saved = uf.checkpoint();
+        uf.union(6, 5);
+        uf.union(9, 4);
+        uf.union(5, 4);
+        System.out.println("Connected(6, 8)? " + uf.connected(6, 8));  // true
+        uf.rollback(saved);
+        System.out.println("Connected(6, 8)? " + uf.connected(6, 8));  // false
+        System.out.println("Connected(4, 8)? " + uf.connected(4, 8));  // true
+        System.out.println("Count = " + uf.count());                   // 8
+    }
+}
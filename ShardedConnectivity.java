@@ -0,0 +1,117 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+
+/*
+ * 多行程（multi-process）分片匯入邊的示範：
+ *   1) 產生一個二進位邊檔（和 StreamingDynamicConnectivity --binary 相同格式：N，接著 p q 數對）
+ *   2) 單一 JVM 的基準：一個 WeightedQuickUnionPathCompressionUF 處理所有的邊
+ *   3) 分片：開 W 個子 JVM，各自用記憶體映射讀邊檔的一段、建自己的 UF、寫出 ComponentSummary
+ *      父行程讀回所有摘要並 merge()，得到全域分群
+ *   4) 比對兩種結果並報告時間（分片的時間包含子 JVM 啟動）
+ *
+ * 執行：
+ *   java ShardedConnectivity                      // N=5000000, M=20000000, W=核心數
+ *   java ShardedConnectivity 20000000 100000000 8
+ *
+ * 子行程（由父行程啟動）：
+ *   java ShardedConnectivity --worker <邊檔> <摘要檔> <from> <to>
+ */
+public class ShardedConnectivity {
+
+    // 處理邊檔第 [from, to) 條邊，回傳 UF
+    static WeightedQuickUnionPathCompressionUF process(Path edges, long from, long to) throws IOException {
+        try (FileChannel ch = FileChannel.open(edges, StandardOpenOption.READ)) {
+            int N = ch.map(FileChannel.MapMode.READ_ONLY, 0, 4).getInt();
+            WeightedQuickUnionPathCompressionUF uf = new WeightedQuickUnionPathCompressionUF(N);
+            long window = 1L << 27;                                   // 每次映射 2^27 條邊以內
+            for (long k = from; k < to; k += window) {
+                long n = Math.min(window, to - k);
+                ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 4 + 8 * k, 8 * n);
+                while (buf.remaining() >= 8) uf.union(buf.getInt(), buf.getInt());
+            }
+            return uf;
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("--worker")) {
+            Path edges = Path.of(args[1]);
+            WeightedQuickUnionPathCompressionUF uf = process(edges, Long.parseLong(args[3]), Long.parseLong(args[4]));
+            ComponentSummary.of(uf).writeTo(Path.of(args[2]));
+            return;
+        }
+
+        int N = args.length > 0 ? Integer.parseInt(args[0]) : 5_000_000;
+        long M = args.length > 1 ? Long.parseLong(args[1]) : 4L * N;
+        int W = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+
+        Path dir = Files.createTempDirectory("sharded-uf");
+        Path edges = dir.resolve("edges.bin");
+        Random random = new Random(42);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(edges.toFile()), 1 << 20))) {
+            out.writeInt(N);
+            for (long k = 0; k < M; k++) {
+                out.writeInt(random.nextInt(N));
+                out.writeInt(random.nextInt(N));
+            }
+        }
+        System.out.printf("N=%d, M=%d, workers=%d, 邊檔 %d MB%n", N, M, W, Files.size(edges) >> 20);
+
+        // 單一 JVM
+        long start = System.nanoTime();
+        WeightedQuickUnionPathCompressionUF single = process(edges, 0, M);
+        double singleSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("單一 JVM        : %7.2f s, %10.0f edges/s, count=%d%n", singleSeconds, M / singleSeconds, single.count());
+
+        // 分片：W 個子 JVM
+        start = System.nanoTime();
+        String java = System.getProperty("java.home") + "/bin/java";
+        String cp = System.getProperty("java.class.path");
+        Process[] workers = new Process[W];
+        Path[] summaries = new Path[W];
+        for (int w = 0; w < W; w++) {
+            summaries[w] = dir.resolve("summary-" + w + ".bin");
+            long from = M * w / W, to = M * (w + 1) / W;
+            workers[w] = new ProcessBuilder(java, "-cp", cp, "ShardedConnectivity", "--worker",
+                    edges.toString(), summaries[w].toString(), Long.toString(from), Long.toString(to))
+                    .inheritIO().start();
+        }
+        for (int w = 0; w < W; w++) {
+            if (workers[w].waitFor() != 0) throw new IllegalStateException("worker " + w + " 失敗");
+        }
+        double workSeconds = (System.nanoTime() - start) / 1e9;
+        ComponentSummary[] parts = new ComponentSummary[W];
+        for (int w = 0; w < W; w++) parts[w] = ComponentSummary.readFrom(summaries[w]);
+        ComponentSummary merged = ComponentSummary.merge(parts);
+        double shardedSeconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%2d 個子 JVM     : %7.2f s, %10.0f edges/s, count=%d（其中合併 %.2f s）%n",
+                W, shardedSeconds, M / shardedSeconds, merged.count(), shardedSeconds - workSeconds);
+
+        // 比對：同一個標籤 ⇔ 單一 JVM 中連通
+        int[] labels = merged.labels();
+        int[] first = new int[N];
+        Arrays.fill(first, -1);
+        int[] firstOfSingle = new int[N];
+        Arrays.fill(firstOfSingle, -1);
+        for (int i = 0; i < N; i++) {
+            int r = single.find(i);
+            if (first[labels[i]] == -1) first[labels[i]] = r;
+            if (firstOfSingle[r] == -1) firstOfSingle[r] = labels[i];
+            if (first[labels[i]] != r || firstOfSingle[r] != labels[i]) throw new IllegalStateException("分群不同於元素 " + i);
+        }
+        System.out.println("合併後的分群與單一 JVM 一致");
+
+        for (Path s : summaries) Files.deleteIfExists(s);
+        Files.deleteIfExists(edges);
+        Files.deleteIfExists(dir);
+    }
+}
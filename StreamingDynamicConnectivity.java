@@ -0,0 +1,212 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/*
+ * 高吞吐量版的 DynamicConnectivity：
+ *   - 用記憶體映射（memory-mapped NIO）讀整個邊檔，不經過 StdIn.readInt()
+ *   - 支援兩種格式：
+ *       文字：和 tinyUF.txt 一樣，第一個整數是 N，後面每兩個整數是一條邊 p q
+ *       二進位：big-endian 的 int，第一個是 N，後面每兩個 int 是一條邊（每條邊 8 bytes）
+ *   - 解析器只負責把邊一條一條交給 EdgeSink；查詢迴圈和 --to-binary 都是它的使用者
+ *   - 每 BATCH 條邊為一批，交給可替換的 UnionFind 實作
+ *   - 接受的合併以自己的位元組緩衝區組成 "p q\n"，一批寫一次
+ *   - 最後在 stderr 報告 edges/second
+ *
+ * 執行：
+ *   java StreamingDynamicConnectivity largeUF.txt > out.txt
+ *   java StreamingDynamicConnectivity --binary largeUF.bin --uf=wqu --quiet
+ *   java StreamingDynamicConnectivity --to-binary largeUF.txt largeUF.bin   // 文字轉二進位
+ */
+public class StreamingDynamicConnectivity {
+    // 解析器讀到的每一條邊
+    public interface EdgeSink {
+        void accept(int p, int q) throws IOException;
+    }
+
+    private static final int BATCH = 1 << 16;            // 每批處理的邊數
+    private static final long WINDOW = 1L << 30;         // 每次映射的檔案區段大小（需為 8 的倍數）
+
+    private final UnionFind uf;
+    private final OutputStream out;                      // null 表示不輸出（--quiet）
+    private final int[] ps = new int[BATCH];
+    private final int[] qs = new int[BATCH];
+    private int pending;                                 // 目前批次裡的邊數
+    private final byte[] outBuf = new byte[BATCH * 24];  // 一批最多 BATCH 行，每行最多 "-2147483648 -2147483648\n"
+    private long edges;                                  // 讀入的邊數
+    private long accepted;                               // 真的合併（有輸出）的邊數
+
+    public StreamingDynamicConnectivity(UnionFind uf, OutputStream out) {
+        this.uf = uf;
+        this.out = out;
+    }
+
+    // 加入一條邊，滿一批就處理
+    private void add(int p, int q) throws IOException {
+        ps[pending] = p;
+        qs[pending] = q;
+        if (++pending == BATCH) flushBatch();
+    }
+
+    // 處理目前批次：只合併尚未連通的邊，並把它們寫進輸出緩衝區
+    private void flushBatch() throws IOException {
+        int len = 0;
+        for (int k = 0; k < pending; k++) {
+            int p = ps[k], q = qs[k];
+            if (!uf.connected(p, q)) {
+                uf.union(p, q);
+                accepted++;
+                if (out != null) {
+                    len = writeInt(outBuf, len, p);
+                    outBuf[len++] = ' ';
+                    len = writeInt(outBuf, len, q);
+                    outBuf[len++] = '\n';
+                }
+            }
+        }
+        edges += pending;
+        pending = 0;
+        if (out != null && len > 0) out.write(outBuf, 0, len);
+    }
+
+    // 把整數的十進位字元寫進 buf[pos..]，回傳新的位置
+    private static int writeInt(byte[] buf, int pos, int v) {
+        if (v == Integer.MIN_VALUE) {
+            byte[] s = "-2147483648".getBytes();
+            System.arraycopy(s, 0, buf, pos, s.length);
+            return pos + s.length;
+        }
+        if (v < 0) { buf[pos++] = '-'; v = -v; }
+        int digits = 1;
+        for (int t = v; t >= 10; t /= 10) digits++;
+        for (int i = pos + digits - 1; i >= pos; i--) {
+            buf[i] = (byte) ('0' + v % 10);
+            v /= 10;
+        }
+        return pos + digits;
+    }
+
+    // === 讀檔 ===
+
+    // 查詢迴圈：每條邊先放進批次，滿一批就處理
+    private void runBinary(FileChannel ch) throws IOException {
+        readBinary(ch, this::add);
+        flushBatch();
+    }
+
+    private void runText(FileChannel ch) throws IOException {
+        readText(ch, this::add);
+        flushBatch();
+    }
+
+    // 二進位：第一個 int 是 N（呼叫前已讀過），從 offset 4 開始每 8 bytes 一條邊
+    static void readBinary(FileChannel ch, EdgeSink sink) throws IOException {
+        long size = ch.size();
+        for (long pos = 4; pos + 8 <= size; ) {
+            long len = Math.min(WINDOW, (size - pos) & ~7L);
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, pos, len);
+            buf.order(ByteOrder.BIG_ENDIAN);
+            while (buf.remaining() >= 8) sink.accept(buf.getInt(), buf.getInt());
+            pos += len;
+        }
+    }
+
+    // 文字：逐 byte 解析整數，狀態（目前數字、符號）跨越映射區段保留；第一個整數是 N，略過
+    static void readText(FileChannel ch, EdgeSink sink) throws IOException {
+        long size = ch.size();
+        boolean inNumber = false, negative = false, seenN = false, haveP = false;
+        int value = 0, p = 0;
+        for (long pos = 0; pos < size; pos += WINDOW) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, pos, Math.min(WINDOW, size - pos));
+            int len = buf.limit();
+            for (int i = 0; i < len; i++) {
+                byte b = buf.get(i);
+                if (b >= '0' && b <= '9') {
+                    value = value * 10 + (b - '0');
+                    inNumber = true;
+                } else if (b == '-' && !inNumber) {
+                    negative = true;
+                } else if (inNumber) {
+                    int v = negative ? -value : value;
+                    if (!seenN) seenN = true;
+                    else if (!haveP) { p = v; haveP = true; }
+                    else { sink.accept(p, v); haveP = false; }
+                    inNumber = false; negative = false; value = 0;
+                }
+            }
+        }
+        if (inNumber && seenN && haveP) sink.accept(p, negative ? -value : value);  // 檔案最後沒有換行
+    }
+
+    // 讀檔頭的 N
+    private static int readN(FileChannel ch, boolean binary) throws IOException {
+        MappedByteBuffer head = ch.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(ch.size(), 64));
+        if (binary) return head.order(ByteOrder.BIG_ENDIAN).getInt(0);
+        int i = 0, n = 0;
+        while (i < head.limit() && (head.get(i) < '0' || head.get(i) > '9')) i++;
+        while (i < head.limit() && head.get(i) >= '0' && head.get(i) <= '9') n = n * 10 + (head.get(i++) - '0');
+        return n;
+    }
+
+    // 依名稱建立 UnionFind 實作
+    static UnionFind newUnionFind(String name, int N) {
+        switch (name) {
+            case "qf":         return new QuickfindUF(N);
+            case "qu":         return new QuickUnionUF(N);
+            case "wqu":        return new WeightedQuickUnionUF(N);
+            case "wqupc":      return new WeightedQuickUnionPathCompressionUF(N);
+            case "concurrent": return new ConcurrentQuickUnionUF(N);
+            default: throw new IllegalArgumentException("未知的 UF 實作: " + name + "（可用 qf, qu, wqu, wqupc, concurrent）");
+        }
+    }
+
+    // 文字邊檔轉成二進位邊檔
+    private static void toBinary(Path text, Path binary) throws IOException {
+        try (FileChannel ch = FileChannel.open(text, StandardOpenOption.READ);
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(binary.toFile()), 1 << 20))) {
+            out.writeInt(readN(ch, false));
+            readText(ch, (p, q) -> { out.writeInt(p); out.writeInt(q); });
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        boolean binary = false, quiet = false;
+        String ufName = "wqupc";
+        String file = null;
+        for (int i = 0; i < args.length; i++) {
+            String s = args[i];
+            if (s.equals("--to-binary")) { toBinary(Path.of(args[i + 1]), Path.of(args[i + 2])); return; }
+            else if (s.equals("--binary")) binary = true;
+            else if (s.equals("--quiet")) quiet = true;
+            else if (s.startsWith("--uf=")) ufName = s.substring(5);
+            else file = s;
+        }
+        if (file == null) {
+            System.err.println("用法: java StreamingDynamicConnectivity [--binary] [--uf=qf|qu|wqu|wqupc|concurrent] [--quiet] <邊檔>");
+            System.err.println("      java StreamingDynamicConnectivity --to-binary <文字邊檔> <二進位邊檔>");
+            return;
+        }
+
+        try (FileChannel ch = FileChannel.open(Path.of(file), StandardOpenOption.READ)) {
+            int N = readN(ch, binary);
+            OutputStream out = quiet ? null : new BufferedOutputStream(new FileOutputStream(java.io.FileDescriptor.out), 1 << 20);
+            StreamingDynamicConnectivity dc = new StreamingDynamicConnectivity(newUnionFind(ufName, N), out);
+
+            long start = System.nanoTime();
+            if (binary) dc.runBinary(ch);
+            else dc.runText(ch);
+            if (out != null) out.flush();
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            System.err.printf("N=%d, edges=%d, accepted=%d, uf=%s, %.3f s, %.0f edges/s%n",
+                    N, dc.edges, dc.accepted, ufName, seconds, dc.edges / seconds);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+// 以 String 當元素的 Union-Find，元素可以隨時出現
+// String → 連續索引 用開放定址（線性探測）的雜湊表；雜湊值另外存在 int[]，
+// 探測時先比雜湊值，相同才呼叫 equals()，已經見過的鍵做 union / connected 不配置記憶體
+public class StringKeyUnionFind {
+    private String[] keys;     // 雜湊表的鍵（null 表示空格）
+    private int[] hashes;      // 每一格鍵的雜湊值
+    private int[] slots;       // 索引
+    private int mask;          // keys.length - 1（容量是 2 的冪次）
+    private final GrowableWeightedQuickUnionUF uf = new GrowableWeightedQuickUnionUF();
+
+    public StringKeyUnionFind() {
+        keys = new String[16];
+        hashes = new int[16];
+        slots = new int[16];
+        mask = 15;
+    }
+
+    // String.hashCode() 會被快取；再打散一次讓低位元也分布均勻
+    private static int hash(String key) {
+        int h = key.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    // 回傳 key 的索引；不存在時回傳 -1
+    public int indexOf(String key) {
+        int h = hash(key);
+        for (int i = h & mask; keys[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == h && keys[i].equals(key)) return slots[i];
+        }
+        return -1;
+    }
+
+    // 回傳 key 的索引；不存在時加入新元素
+    public int index(String key) {
+        int h = hash(key);
+        int i = h & mask;
+        for (; keys[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == h && keys[i].equals(key)) return slots[i];
+        }
+        int index = uf.add();
+        keys[i] = key;
+        hashes[i] = h;
+        slots[i] = index;
+        if (2 * uf.size() > keys.length) rehash();   // 負載因子超過 1/2 就加倍
+        return index;
+    }
+
+    private void rehash() {
+        String[] oldKeys = keys;
+        int[] oldHashes = hashes;
+        int[] oldSlots = slots;
+        keys = new String[2 * oldKeys.length];
+        hashes = new int[keys.length];
+        slots = new int[keys.length];
+        mask = keys.length - 1;
+        for (int j = 0; j < oldKeys.length; j++) {
+            if (oldKeys[j] == null) continue;
+            int i = oldHashes[j] & mask;
+            while (keys[i] != null) i = (i + 1) & mask;
+            keys[i] = oldKeys[j];
+            hashes[i] = oldHashes[j];
+            slots[i] = oldSlots[j];
+        }
+    }
+
+    // 合併 p 和 q（沒見過的鍵會自動加入）
+    public void union(String p, String q) {
+        uf.union(index(p), index(q));
+    }
+
+    // 判斷 p 和 q 是否連通（沒見過的鍵只和自己連通）
+    public boolean connected(String p, String q) {
+        if (p.equals(q)) return true;
+        int i = indexOf(p), j = indexOf(q);
+        return i >= 0 && j >= 0 && uf.connected(i, j);
+    }
+
+    // p 所在連通塊的大小（沒見過的鍵是 1）
+    public int componentSize(String p) {
+        int i = indexOf(p);
+        return i < 0 ? 1 : uf.componentSize(i);
+    }
+
+    // 見過的鍵數
+    public int size() {
+        return uf.size();
+    }
+
+    // 見過的鍵組成的連通塊個數
+    public int count() {
+        return uf.count();
+    }
+
+    public static void main(String[] args) {
+        StringKeyUnionFind uf = new StringKeyUnionFind();
+        uf.union("alice", "bob");
+        uf.union("bob", "carol");
+        uf.union("dave", "erin");
+        System.out.println("Connected(alice, carol)? " + uf.connected("alice", "carol"));  // true
+        System.out.println("Connected(alice, erin)? " + uf.connected("alice", "erin"));    // false
+        System.out.println("Connected(frank, frank)? " + uf.connected("frank", "frank"));  // true
+        System.out.println("ComponentSize(bob) = " + uf.componentSize("bob"));             // 3
+        System.out.println("Size = " + uf.size() + ", Count = " + uf.count());             // 5, 2
+    }
+}
@@ -0,0 +1,8 @@
+// 所有 Union-Find 實作共用的介面：用戶端（例如 StreamingDynamicConnectivity）可以隨意替換實作
+public interface UnionFind {
+    // 判斷 p 和 q 是否連通
+    boolean connected(int p, int q);
+
+    // 將 p 和 q 所在的集合合併
+    void union(int p, int q);
+}
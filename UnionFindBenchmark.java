@@ -0,0 +1,182 @@
+import java.lang.management.ManagementFactory;
+import java.util.Random;
+import java.util.function.IntFunction;
+
+/*
+ * 所有 Union-Find 實作的量測程式
+ *
+ * 工作負載（每個都是 N 次 union 接著 N 次 connected）：
+ *   uniform   ：均勻隨機的數對
+ *   chain     ：刻意製造長鏈（i+1 → i，每次都把舊的根掛到新元素下），QuickUnionUF 的最壞情況
+ *   grid      ：√N×√N 格子的 percolation，隨機打開格子並和已打開的鄰居合併
+ *   powerlaw  ：端點依 N·u³ 抽樣（u 均勻），少數元素擁有大部分的邊，近似冪律分布
+ *
+ * 量測：
+ *   throughput：每秒操作數（先暖機一次，取第二次）
+ *   latency   ：抽樣個別操作的時間，回報 p50 / p99 / p99.9（ns）
+ *   alloc     ：量測期間這個執行緒配置的 bytes / op（用 com.sun.management.ThreadMXBean）
+ *
+ * QuickfindUF 的 union 是 O(N)、QuickUnionUF 在 chain 上是 O(N)，
+ * 所以它們只量到 maxQuadraticN（預設 10^5），避免一次跑上幾個小時。
+ *
+ * 執行：
+ *   java UnionFindBenchmark                    // N = 10^3 .. 10^6
+ *   java -Xmx8g UnionFindBenchmark 100000000   // N = 10^3 .. 10^8
+ *   java UnionFindBenchmark 1000000 grid       // 只跑 grid
+ */
+public class UnionFindBenchmark {
+    private static final int MAX_LATENCY_SAMPLES = 1 << 20;
+
+    private static final String[] WORKLOADS = { "uniform", "chain", "grid", "powerlaw" };
+
+    // === 工作負載產生器：回傳 [p0, q0, p1, q1, ...]（CompactUF 的量測也用這幾個） ===
+
+    static int[] uniform(int N, int M, Random random) {
+        int[] e = new int[2 * M];
+        for (int k = 0; k < e.length; k++) e[k] = random.nextInt(N);
+        return e;
+    }
+
+    static int[] chain(int N) {
+        int[] e = new int[2 * (N - 1)];
+        for (int i = 0; i + 1 < N; i++) {
+            e[2 * i] = i;         // union(i, i+1)：QuickUnionUF 會把 i 的根掛到 i+1 下面
+            e[2 * i + 1] = i + 1;
+        }
+        return e;
+    }
+
+    static int[] grid(int N, Random random) {
+        int side = Math.max(1, (int) Math.sqrt(N));
+        int sites = side * side;
+        int[] order = new int[sites];
+        for (int i = 0; i < sites; i++) order[i] = i;
+        for (int i = sites - 1; i > 0; i--) {   // 打開格子的順序
+            int j = random.nextInt(i + 1);
+            int t = order[i]; order[i] = order[j]; order[j] = t;
+        }
+        boolean[] open = new boolean[sites];
+        int[] e = new int[8 * sites];
+        int k = 0;
+        for (int s : order) {
+            open[s] = true;
+            int r = s / side, c = s % side;
+            if (r > 0 && open[s - side])        { e[k++] = s; e[k++] = s - side; }
+            if (r + 1 < side && open[s + side]) { e[k++] = s; e[k++] = s + side; }
+            if (c > 0 && open[s - 1])           { e[k++] = s; e[k++] = s - 1; }
+            if (c + 1 < side && open[s + 1])    { e[k++] = s; e[k++] = s + 1; }
+        }
+        return java.util.Arrays.copyOf(e, k);
+    }
+
+    static int[] powerLaw(int N, int M, Random random) {
+        int[] e = new int[2 * M];
+        for (int k = 0; k < e.length; k++) {
+            double u = random.nextDouble();
+            e[k] = (int) (N * u * u * u);
+        }
+        return e;
+    }
+
+    static int[] workload(String name, int N, Random random) {
+        switch (name) {
+            case "uniform":  return uniform(N, N, random);
+            case "chain":    return chain(N);
+            case "grid":     return grid(N, random);
+            case "powerlaw": return powerLaw(N, N, random);
+            default: throw new IllegalArgumentException("未知的工作負載: " + name);
+        }
+    }
+
+    // === 量測 ===
+
+    private static final class Result {
+        double opsPerSecond;
+        long p50, p99, p999;
+        double bytesPerOp;
+    }
+
+    // 跑一次所有操作，回傳總秒數
+    private static double runOnce(UnionFind uf, int[] edges, int[] queries) {
+        long start = System.nanoTime();
+        for (int k = 0; k < edges.length; k += 2) uf.union(edges[k], edges[k + 1]);
+        int hits = 0;
+        for (int k = 0; k < queries.length; k += 2) if (uf.connected(queries[k], queries[k + 1])) hits++;
+        double seconds = (System.nanoTime() - start) / 1e9;
+        if (hits < 0) System.out.println();   // 避免 JIT 把查詢消掉
+        return seconds;
+    }
+
+    private static Result measure(IntFunction<UnionFind> factory, int N, int[] edges, int[] queries) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long self = Thread.currentThread().threadId();
+        long ops = (edges.length + queries.length) / 2;
+
+        runOnce(factory.apply(N), edges, queries);             // 暖機
+
+        Result r = new Result();
+        UnionFind uf = factory.apply(N);                       // 建構不算在配置量裡
+        long allocBefore = threads.getThreadAllocatedBytes(self);
+        double seconds = runOnce(uf, edges, queries);
+        r.bytesPerOp = (threads.getThreadAllocatedBytes(self) - allocBefore) / (double) ops;
+        r.opsPerSecond = ops / seconds;
+
+        // 延遲：另外跑一次，每隔 stride 個操作量一次單一操作的時間
+        uf = factory.apply(N);
+        int stride = (int) Math.max(1, ops / MAX_LATENCY_SAMPLES);
+        long[] samples = new long[(int) (ops / stride) + 1];
+        int n = 0, hits = 0;
+        for (int k = 0, op = 0; k < edges.length; k += 2, op++) {
+            if (op % stride == 0) {
+                long t = System.nanoTime();
+                uf.union(edges[k], edges[k + 1]);
+                samples[n++] = System.nanoTime() - t;
+            } else uf.union(edges[k], edges[k + 1]);
+        }
+        for (int k = 0, op = edges.length / 2; k < queries.length; k += 2, op++) {
+            if (op % stride == 0) {
+                long t = System.nanoTime();
+                if (uf.connected(queries[k], queries[k + 1])) hits++;
+                samples[n++] = System.nanoTime() - t;
+            } else if (uf.connected(queries[k], queries[k + 1])) hits++;
+        }
+        if (hits < 0) System.out.println();
+        java.util.Arrays.sort(samples, 0, n);
+        r.p50 = samples[(int) (n * 0.50)];
+        r.p99 = samples[Math.min(n - 1, (int) (n * 0.99))];
+        r.p999 = samples[Math.min(n - 1, (int) (n * 0.999))];
+        return r;
+    }
+
+    public static void main(String[] args) {
+        int maxN = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        String[] workloads = args.length > 1 ? new String[] { args[1] } : WORKLOADS;
+        int maxQuadraticN = Integer.getInteger("maxQuadraticN", 100_000);
+
+        String[] names = { "QuickfindUF", "QuickUnionUF", "WeightedQuickUnionUF", "WeightedQuickUnionPathCompressionUF" };
+        @SuppressWarnings("unchecked")
+        IntFunction<UnionFind>[] factories = new IntFunction[] {
+            (IntFunction<UnionFind>) QuickfindUF::new,
+            (IntFunction<UnionFind>) QuickUnionUF::new,
+            (IntFunction<UnionFind>) WeightedQuickUnionUF::new,
+            (IntFunction<UnionFind>) WeightedQuickUnionPathCompressionUF::new,
+        };
+        boolean[] quadratic = { true, true, false, false };
+
+        System.out.printf("%-10s %10s %-36s %14s %8s %8s %8s %10s%n",
+                "workload", "N", "implementation", "ops/s", "p50 ns", "p99 ns", "p99.9 ns", "bytes/op");
+        for (String w : workloads) {
+            for (long N = 1000; N <= maxN; N *= 10) {
+                Random random = new Random(42);
+                int[] edges = workload(w, (int) N, random);
+                int[] queries = uniform((int) N, (int) N, random);
+                for (int i = 0; i < names.length; i++) {
+                    if (quadratic[i] && N > maxQuadraticN) continue;
+                    Result r = measure(factories[i], (int) N, edges, queries);
+                    System.out.printf("%-10s %10d %-36s %14.0f %8d %8d %8d %10.2f%n",
+                            w, N, names[i], r.opsPerSecond, r.p50, r.p99, r.p999, r.bytesPerOp);
+                }
+            }
+        }
+    }
+}
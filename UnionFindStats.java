@@ -0,0 +1,126 @@
+import java.lang.management.ManagementFactory;
+import javax.management.ObjectName;
+
+/*
+ * Union-Find 的低成本統計（find 步數直方圖、union 次數、空 union 次數、壓縮寫入次數、最大樹高）
+ *
+ * 開關：
+ *   java -Duf.stats=true ...   開啟；預設關閉
+ *   ENABLED 是 static final，JIT 會把 if (UnionFindStats.ENABLED) {...} 當成常數，
+ *   關閉時整段（包含為了統計而計算的步數）都被消掉，熱路徑和沒有統計時一樣
+ *
+ * 使用：
+ *   QuickUnionUF、WeightedQuickUnionUF、WeightedQuickUnionPathCompressionUF 都有 stats()，
+ *   關閉時回傳 null；開啟時可以 register("名稱") 註冊到 JMX 讓監控系統輪詢
+ *
+ * 執行緒：計數器只由擁有它的 UF（單執行緒）寫入，JMX 從別的執行緒讀到的是近似值，作為監控已經足夠
+ *
+ * 執行：
+ *   java UnionFindStats           // 示範統計，並各開一個 JVM 跑 UnionFindBenchmark（關閉 / 開啟）比較成本
+ */
+public class UnionFindStats implements UnionFindStatsMBean {
+    public static final boolean ENABLED = Boolean.getBoolean("uf.stats");
+
+    private static final int BUCKETS = 64;
+
+    private final long[] histogram = new long[BUCKETS];
+    private long finds, steps, unions, noOpUnions, compressionWrites;
+    private final int[] height;      // 每個根的樹高（上界）
+    private int maxHeight;
+
+    // N 個元素的統計；UF 只在 ENABLED 時建立它
+    public UnionFindStats(int N) {
+        height = new int[N];
+    }
+
+    // 一次 find 走了 s 步、寫了 writes 次 id[]
+    void find(int s, int writes) {
+        finds++;
+        steps += s;
+        histogram[Math.min(s, BUCKETS - 1)]++;
+        compressionWrites += writes;
+    }
+
+    // 一次 union；child 掛到 parent 下（noOp 時兩者相同）
+    void union(int child, int parent) {
+        unions++;
+        if (child == parent) {
+            noOpUnions++;
+            return;
+        }
+        int h = Math.max(height[parent], height[child] + 1);
+        height[parent] = h;
+        if (h > maxHeight) maxHeight = h;
+    }
+
+    // UF 回到全部單獨元素時（WeightedQuickUnionPathCompressionUF.reset）呼叫：每棵樹的高度歸零，計數不動
+    void resetHeights() {
+        java.util.Arrays.fill(height, 0);
+    }
+
+    // 註冊到平台的 MBeanServer，ObjectName 為 UnionFind:name=<name>
+    public UnionFindStats register(String name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, new ObjectName("UnionFind:name=" + ObjectName.quote(name)));
+        } catch (Exception e) {
+            throw new IllegalStateException("無法註冊 JMX MBean: " + name, e);
+        }
+        return this;
+    }
+
+    public long getFinds() { return finds; }
+    public long getUnions() { return unions; }
+    public long getNoOpUnions() { return noOpUnions; }
+    public long getCompressionWrites() { return compressionWrites; }
+    public int getMaxTreeHeight() { return maxHeight; }
+    public double getMeanFindSteps() { return finds == 0 ? 0 : (double) steps / finds; }
+    public long[] getFindStepHistogram() { return histogram.clone(); }
+
+    public void reset() {
+        java.util.Arrays.fill(histogram, 0);
+        finds = steps = unions = noOpUnions = compressionWrites = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("finds=%d, mean steps=%.2f, unions=%d, no-op unions=%d, compression writes=%d, max height=%d%n",
+                finds, getMeanFindSteps(), unions, noOpUnions, compressionWrites, maxHeight));
+        for (int s = 0; s < BUCKETS; s++) {
+            if (histogram[s] > 0) sb.append(String.format("  %2d%s steps: %d%n", s, s == BUCKETS - 1 ? "+" : " ", histogram[s]));
+        }
+        return sb.toString();
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (ENABLED) {
+            int N = 100_000;
+            java.util.Random random = new java.util.Random(42);
+            QuickUnionUF qu = new QuickUnionUF(N);
+            WeightedQuickUnionUF wqu = new WeightedQuickUnionUF(N);
+            WeightedQuickUnionPathCompressionUF wqupc = new WeightedQuickUnionPathCompressionUF(N);
+            for (int k = 0; k < N; k++) {
+                int p = random.nextInt(N), q = random.nextInt(N);
+                qu.union(p, q);
+                wqu.union(p, q);
+                wqupc.union(p, q);
+            }
+            System.out.println("QuickUnionUF:\n" + qu.stats());
+            System.out.println("WeightedQuickUnionUF:\n" + wqu.stats());
+            System.out.println("WeightedQuickUnionPathCompressionUF:\n" + wqupc.stats());
+            return;
+        }
+
+        // 關閉時：各開一個子 JVM 跑同樣的量測，比較統計關閉 / 開啟的吞吐量
+        String java = System.getProperty("java.home") + "/bin/java";
+        String cp = System.getProperty("java.class.path");
+        String maxN = args.length > 0 ? args[0] : "1000000";
+        for (String flag : new String[] { "-Duf.stats=false", "-Duf.stats=true" }) {
+            System.out.println("=== " + flag);
+            new ProcessBuilder(java, flag, "-DmaxQuadraticN=10000", "-cp", cp, "UnionFindBenchmark", maxN, "uniform")
+                    .inheritIO().start().waitFor();
+        }
+        System.out.println("=== 統計內容（-Duf.stats=true）");
+        new ProcessBuilder(java, "-Duf.stats=true", "-cp", cp, "UnionFindStats").inheritIO().start().waitFor();
+    }
+}
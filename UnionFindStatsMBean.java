@@ -0,0 +1,11 @@
+// UnionFindStats 透過 JMX 公開的指標（JConsole / VisualVM 可以直接看）
+public interface UnionFindStatsMBean {
+    long getFinds();                 // find（root）呼叫次數
+    long getUnions();                // union 呼叫次數
+    long getNoOpUnions();            // 兩端已經連通、沒有改變任何東西的 union 次數
+    long getCompressionWrites();     // 路徑壓縮寫入 id[] 的次數
+    int getMaxTreeHeight();          // 目前最高的樹高（有路徑壓縮時是上界）
+    double getMeanFindSteps();       // 平均每次 find 走幾步
+    long[] getFindStepHistogram();   // find 步數的直方圖，最後一格包含所有更長的
+    void reset();                    // 歸零（樹高除外，它描述的是目前的結構）
+}
@@ -1,26 +1,72 @@
-public class WeightedQuickUnionPathCompressionUF {
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+public class WeightedQuickUnionPathCompressionUF implements UnionFind {
     private int[] id;    // 儲存每個元素的父節點
     private int[] size;  // 儲存每棵樹的大小
+    private int[] next;  // 同一個連通塊的成員串成環狀鏈結串列：next[i] 是下一個成員
+    private int count;   // 連通塊個數
+    private final UnionFindStats stats;  // 統計（-Duf.stats=true 才會建立，否則是 null）
 
     // 初始化陣列
     public WeightedQuickUnionPathCompressionUF(int N) {
         id = new int[N];
         size = new int[N];
+        next = new int[N];
+        singletons();
+        stats = UnionFindStats.ENABLED ? new UnionFindStats(N) : null;
+    }
+
+    // 回到 N 個各自獨立的元素，沿用原本的陣列（例如每次 Monte Carlo 試驗都要一個全新的 UF）
+    // 統計的計數不歸零（要歸零用 stats().reset()），只有樹高跟著歸零
+    public void reset() {
+        singletons();
+        if (UnionFindStats.ENABLED) stats.resetHeights();
+    }
+
+    private void singletons() {
+        int N = id.length;
+        count = N;
         for (int i = 0; i < N; i++) {
             id[i] = i;      // 初始化時每個元素的根節點是自己
             size[i] = 1;    // 每個集合的大小都是 1
+            next[i] = i;    // 每個環只有自己
         }
     }
 
+    // 從快照載入時使用：陣列已經準備好，不需要初始化
+    private WeightedQuickUnionPathCompressionUF(int[] id, int[] size, int[] next, int count) {
+        this.id = id;
+        this.size = size;
+        this.next = next;
+        this.count = count;
+        this.stats = UnionFindStats.ENABLED ? new UnionFindStats(id.length) : null;
+    }
+
     // 找到根節點（使用路徑壓縮）
     private int root(int i) {
+        int steps = 0;  // 只給統計用，關閉統計時 JIT 會消掉
         while (i != id[i]) {
             id[i] = id[id[i]];  // 將節點 i 直接連接到它的祖父節點
             i = id[i];
+            steps++;
         }
+        if (UnionFindStats.ENABLED) stats.find(steps, steps);  // 每一步寫一次 id[]
         return i;
     }
 
+    // p 所在連通塊的根（代表元素）
+    public int find(int p) {
+        return root(p);
+    }
+
     // 判斷 p 和 q 是否連通
     public boolean connected(int p, int q) {
         return root(p) == root(q);  // 判斷兩個元素的根是否相同
@@ -31,15 +77,121 @@ public class WeightedQuickUnionPathCompressionUF {
         int rootP = root(p);  // 找到 p 的根節點
         int rootQ = root(q);  // 找到 q 的根節點
 
-        if (rootP == rootQ) return;  // 如果已經連通，直接返回
+        if (rootP == rootQ) {  // 如果已經連通，直接返回
+            if (UnionFindStats.ENABLED) stats.union(rootP, rootQ);
+            return;
+        }
 
         // 比較兩棵樹的大小
         if (size[rootP] < size[rootQ]) {
             id[rootP] = rootQ;       // 將較小的樹掛到較大的樹上
             size[rootQ] += size[rootP];  // 更新新根節點的大小
+            if (UnionFindStats.ENABLED) stats.union(rootP, rootQ);
         } else {
             id[rootQ] = rootP;       // 將 rootQ 掛到 rootP
             size[rootP] += size[rootQ];  // 更新新根節點的大小
+            if (UnionFindStats.ENABLED) stats.union(rootQ, rootP);
+        }
+
+        // 把兩個環接成一個：交換兩個根的 next 即可，O(1)
+        int t = next[rootP];
+        next[rootP] = next[rootQ];
+        next[rootQ] = t;
+        count--;
+    }
+
+    // 連通塊個數，O(1)
+    public int count() {
+        return count;
+    }
+
+    // 元素個數
+    public int size() {
+        return id.length;
+    }
+
+    // 統計資料；沒有用 -Duf.stats=true 開啟時回傳 null
+    public UnionFindStats stats() {
+        return stats;
+    }
+
+    // p 所在連通塊的大小（只有根的 size[] 正確，所以先找根）
+    public int componentSize(int p) {
+        return size[root(p)];
+    }
+
+    // p 所在連通塊的所有成員，時間和連通塊大小成正比，只配置回傳的陣列
+    public int[] members(int p) {
+        int[] result = new int[componentSize(p)];
+        int k = 0, i = p;
+        do {
+            result[k++] = i;
+            i = next[i];
+        } while (i != p);
+        return result;
+    }
+
+    // === 快照 ===
+    // 檔案格式（big-endian）：MAGIC、N、接著 N 個 int 的 id[]，而且每個元素都直接指向根（攤平）
+    // size[] 不存：載入時數一遍每個根底下有幾個元素即可
+    private static final int MAGIC = 0x55465331;  // "UFS1"
+    private static final int CHUNK = 1 << 28;     // 每次映射 2^28 個 int（1 GB），避免超過單一映射 2 GB 的上限
+
+    // 將目前狀態存成快照：先寫到暫存檔，再原子性地改名，寫到一半當機也不會破壞舊快照
+    public void save(Path file) throws IOException {
+        int N = id.length;
+        for (int i = 0; i < N; i++) id[i] = root(i);  // 攤平：每個元素直接指向根
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer head = ch.map(FileChannel.MapMode.READ_WRITE, 0, 8);
+            head.putInt(MAGIC).putInt(N);
+            head.force();
+            for (int from = 0; from < N; from += CHUNK) {
+                int len = Math.min(CHUNK, N - from);
+                MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_WRITE, 8 + 4L * from, 4L * len);
+                buf.asIntBuffer().put(id, from, len);
+                buf.force();
+            }
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // 用記憶體映射讀回快照，時間只和檔案大小有關（O(N)），和當初合併過多少條邊無關
+    public static WeightedQuickUnionPathCompressionUF load(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (ch.size() < 8) throw new IOException("不是 Union-Find 快照檔: " + file);
+            ByteBuffer head = ch.map(FileChannel.MapMode.READ_ONLY, 0, 8);
+            if (head.getInt() != MAGIC) throw new IOException("不是 Union-Find 快照檔: " + file);
+            int N = head.getInt();
+            if (N < 0 || ch.size() != 8 + 4L * N) throw new IOException("快照檔長度不符: " + file);
+
+            int[] id = new int[N];
+            int[] size = new int[N];
+            int[] next = new int[N];
+            int count = 0;
+            for (int from = 0; from < N; from += CHUNK) {
+                int len = Math.min(CHUNK, N - from);
+                IntBuffer ints = ch.map(FileChannel.MapMode.READ_ONLY, 8 + 4L * from, 4L * len).asIntBuffer();
+                ints.get(id, from, len);                  // 整段複製 id[]
+            }
+            for (int i = 0; i < N; i++) {
+                int r = id[i];
+                if (r < 0 || r >= N || id[r] != r) throw new IOException("快照檔內容損壞，元素 " + i);
+                size[r]++;                                // 重新數出每棵樹的大小
+            }
+            for (int i = 0; i < N; i++) next[i] = i;
+            for (int i = 0; i < N; i++) {                 // 重建成員環：把 i 插在根的後面
+                int r = id[i];
+                if (r == i) {
+                    count++;                              // 每個根是一個連通塊
+                } else {
+                    next[i] = next[r];
+                    next[r] = i;
+                }
+            }
+            return new WeightedQuickUnionPathCompressionUF(id, size, next, count);
         }
     }
 
@@ -64,5 +216,10 @@ public class WeightedQuickUnionPathCompressionUF {
         System.out.println("Connected(0, 7)? " + wqupc.connected(0, 7));  // true
         System.out.println("Connected(8, 9)? " + wqupc.connected(8, 9));  // true
         System.out.println("Connected(5, 4)? " + wqupc.connected(5, 4));  // false
+
+        // 測試 count()、componentSize()、members()
+        System.out.println("Count = " + wqupc.count());                                    // 2
+        System.out.println("ComponentSize(0) = " + wqupc.componentSize(0));                // 6
+        System.out.println("Members(4) = " + java.util.Arrays.toString(wqupc.members(4)));  // 4 個成員：3 4 8 9
     }
 }
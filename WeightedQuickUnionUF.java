@@ -1,22 +1,32 @@
-public class WeightedQuickUnionUF {
+public class WeightedQuickUnionUF implements UnionFind {
     private int[] id;    // 儲存每個元素的父節點
     private int[] size;  // 儲存每棵樹的大小
+    private int[] next;  // 同一個連通塊的成員串成環狀鏈結串列：next[i] 是下一個成員
+    private int count;   // 連通塊個數
+    private final UnionFindStats stats;  // 統計（-Duf.stats=true 才會建立，否則是 null）
 
     // 初始化陣列
     public WeightedQuickUnionUF(int N) {
         id = new int[N];
         size = new int[N];
+        next = new int[N];
+        count = N;
         for (int i = 0; i < N; i++) {
             id[i] = i;      // 初始化時每個元素的根節點是自己
             size[i] = 1;    // 每個集合的大小都是 1
+            next[i] = i;    // 每個環只有自己
         }
+        stats = UnionFindStats.ENABLED ? new UnionFindStats(N) : null;
     }
 
     // 找到根節點
     private int root(int i) {
+        int steps = 0;  // 只給統計用，關閉統計時 JIT 會消掉
         while (i != id[i]) {
             i = id[i];  // 一直往上尋找，直到找到根節點
+            steps++;
         }
+        if (UnionFindStats.ENABLED) stats.find(steps, 0);
         return i;
     }
 
@@ -30,16 +40,53 @@ public class WeightedQuickUnionUF {
         int rootP = root(p);  // 找到 p 的根節點
         int rootQ = root(q);  // 找到 q 的根節點
 
-        if (rootP == rootQ) return;  // 如果已經連通，直接返回
+        if (rootP == rootQ) {  // 如果已經連通，直接返回
+            if (UnionFindStats.ENABLED) stats.union(rootP, rootQ);
+            return;
+        }
 
         // 比較兩棵樹的大小
         if (size[rootP] < size[rootQ]) {
             id[rootP] = rootQ;       // 將較小的樹掛到較大的樹上
             size[rootQ] += size[rootP];  // 更新新根節點的大小
+            if (UnionFindStats.ENABLED) stats.union(rootP, rootQ);
         } else {
             id[rootQ] = rootP;       // 將 rootQ 掛到 rootP
             size[rootP] += size[rootQ];  // 更新新根節點的大小
+            if (UnionFindStats.ENABLED) stats.union(rootQ, rootP);
         }
+
+        // 把兩個環接成一個：交換兩個根的 next 即可，O(1)
+        int t = next[rootP];
+        next[rootP] = next[rootQ];
+        next[rootQ] = t;
+        count--;
+    }
+
+    // 連通塊個數，O(1)
+    public int count() {
+        return count;
+    }
+
+    // 統計資料；沒有用 -Duf.stats=true 開啟時回傳 null
+    public UnionFindStats stats() {
+        return stats;
+    }
+
+    // p 所在連通塊的大小（只有根的 size[] 正確，所以先找根）
+    public int componentSize(int p) {
+        return size[root(p)];
+    }
+
+    // p 所在連通塊的所有成員，時間和連通塊大小成正比，只配置回傳的陣列
+    public int[] members(int p) {
+        int[] result = new int[componentSize(p)];
+        int k = 0, i = p;
+        do {
+            result[k++] = i;
+            i = next[i];
+        } while (i != p);
+        return result;
     }
 
     // main() 方法：測試加權合併的功能
@@ -63,5 +110,10 @@ public class WeightedQuickUnionUF {
         System.out.println("Connected(0, 7)? " + wqu.connected(0, 7));  // true
         System.out.println("Connected(8, 9)? " + wqu.connected(8, 9));  // true
         System.out.println("Connected(5, 4)? " + wqu.connected(5, 4));  // false
+
+        // 測試 count()、componentSize()、members()
+        System.out.println("Count = " + wqu.count());                                    // 2
+        System.out.println("ComponentSize(0) = " + wqu.componentSize(0));                // 6
+        System.out.println("Members(4) = " + java.util.Arrays.toString(wqu.members(4)));  // 4 個成員：3 4 8 9
     }
 }
@@ -0,0 +1,178 @@
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.LongVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorShuffle;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * VectorSortingNetwork.java
+ *
+ * SortingNetwork 的向量版本：同一個 bitonic 網路，一次做一整個 256-bit 向量（int 8 個 lane、long / double 4 個 lane）
+ * -----------------------------------------------------------------------------
+ *   - d >= L（lane 數）：b[i..i+L) 和 b[i+d..i+d+L) 兩個向量做 min / max，方向由 (i & k) 決定
+ *   - d <  L：向量 x 和 x.rearrange(i ^ d) 做 min / max，mask 為 true 的 lane 取 max；
+ *             k < L 時每個 lane 的方向不同，mask 事先算好（SMALL[lg k][lg d]），
+ *             k >= L 時整個向量同一個方向，遞增用 UPPER[lg d]（lane 的第 d 位是 1 → 取 max），遞減反過來
+ *     同一個向量在 d < L 的幾個 stage 都留在暫存器裡，只讀寫一次記憶體
+ *
+ * 這是選用的檔案：jdk.incubator.vector 是孵化中的模組，編譯和執行都要加 --add-modules。
+ * 其他檔案都不直接用到這個類別 —— SortingNetwork 在執行時有這個模組、也找得到這個類別時，
+ * 才用 MethodHandle 呼叫 network(...)；找不到就用純量版本。所以不編譯這個檔案，其餘的程式照樣能編譯、執行。
+ *
+ * 編譯：
+ *   javac *.java                                                       // 不含這個檔案：只有純量版本
+ *   javac --add-modules jdk.incubator.vector VectorSortingNetwork.java  // 再加上向量版本
+ * 執行：
+ *   java --add-modules jdk.incubator.vector SortingNetwork
+ */
+public class VectorSortingNetwork {
+    private static final VectorSpecies<Integer> I = IntVector.SPECIES_256;
+    private static final VectorSpecies<Long> L = LongVector.SPECIES_256;
+    private static final VectorSpecies<Double> D = DoubleVector.SPECIES_256;
+
+    private static final VectorShuffle<Integer>[] I_SWAP = swaps(I);
+    private static final VectorMask<Integer>[] I_UPPER = uppers(I);
+    private static final VectorMask<Integer>[][] I_SMALL = smalls(I);
+    private static final VectorShuffle<Long>[] L_SWAP = swaps(L);
+    private static final VectorMask<Long>[] L_UPPER = uppers(L);
+    private static final VectorMask<Long>[][] L_SMALL = smalls(L);
+    private static final VectorShuffle<Double>[] D_SWAP = swaps(D);
+    private static final VectorMask<Double>[] D_UPPER = uppers(D);
+    private static final VectorMask<Double>[][] D_SMALL = smalls(D);
+
+    // 硬體的向量至少 256 bit 才划算；更窄時 Vector API 會退回很慢的 Java 實作
+    public static boolean supported() {
+        return IntVector.SPECIES_PREFERRED.vectorBitSize() >= 256;
+    }
+
+    // SWAP[lg d]：lane i 換成 lane i ^ d
+    @SuppressWarnings("unchecked")
+    private static <E> VectorShuffle<E>[] swaps(VectorSpecies<E> s) {
+        VectorShuffle<E>[] swap = new VectorShuffle[lg(s.length())];
+        for (int d = 1; d < s.length(); d <<= 1) {
+            int dd = d;
+            swap[lg(d)] = VectorShuffle.fromOp(s, i -> i ^ dd);
+        }
+        return swap;
+    }
+
+    // UPPER[lg d]：lane i 的第 d 位是 1（這對裡較後面的那一個）
+    @SuppressWarnings("unchecked")
+    private static <E> VectorMask<E>[] uppers(VectorSpecies<E> s) {
+        VectorMask<E>[] upper = new VectorMask[lg(s.length())];
+        for (int d = 1; d < s.length(); d <<= 1) {
+            boolean[] bits = new boolean[s.length()];
+            for (int i = 0; i < bits.length; i++) bits[i] = (i & d) != 0;
+            upper[lg(d)] = VectorMask.fromArray(s, bits, 0);
+        }
+        return upper;
+    }
+
+    // SMALL[lg k][lg d]（k < L）：lane i 取 max ⇔ (後面那一個) == (遞增)
+    @SuppressWarnings("unchecked")
+    private static <E> VectorMask<E>[][] smalls(VectorSpecies<E> s) {
+        VectorMask<E>[][] small = new VectorMask[lg(s.length())][];
+        for (int k = 2; k < s.length(); k <<= 1) {
+            small[lg(k)] = new VectorMask[lg(k)];
+            for (int d = 1; d < k; d <<= 1) {
+                boolean[] bits = new boolean[s.length()];
+                for (int i = 0; i < bits.length; i++) bits[i] = ((i & d) != 0) == ((i & k) == 0);
+                small[lg(k)][lg(d)] = VectorMask.fromArray(s, bits, 0);
+            }
+        }
+        return small;
+    }
+
+    private static int lg(int n) {
+        return 31 - Integer.numberOfLeadingZeros(n);
+    }
+
+    public static void network(int[] b, int B) {
+        int lanes = I.length();
+        for (int k = 2; k <= B; k <<= 1) {
+            for (int d = k >> 1; d >= lanes; d >>= 1) {
+                for (int g = 0; g < B; g += 2 * d) {
+                    boolean up = (g & k) == 0;
+                    for (int i = g; i < g + d; i += lanes) {
+                        IntVector x = IntVector.fromArray(I, b, i), y = IntVector.fromArray(I, b, i + d);
+                        IntVector lo = x.min(y), hi = x.max(y);
+                        (up ? lo : hi).intoArray(b, i);
+                        (up ? hi : lo).intoArray(b, i + d);
+                    }
+                }
+            }
+            for (int i = 0; i < B; i += lanes) {
+                IntVector x = IntVector.fromArray(I, b, i);
+                boolean up = (i & k) == 0;
+                for (int d = Math.min(k, lanes) >> 1; d > 0; d >>= 1) {
+                    IntVector y = x.rearrange(I_SWAP[lg(d)]);
+                    IntVector lo = x.min(y), hi = x.max(y);
+                    if (k < lanes) x = lo.blend(hi, I_SMALL[lg(k)][lg(d)]);
+                    else if (up)   x = lo.blend(hi, I_UPPER[lg(d)]);
+                    else           x = hi.blend(lo, I_UPPER[lg(d)]);
+                }
+                x.intoArray(b, i);
+            }
+        }
+    }
+
+    public static void network(long[] b, int B) {
+        int lanes = L.length();
+        for (int k = 2; k <= B; k <<= 1) {
+            for (int d = k >> 1; d >= lanes; d >>= 1) {
+                for (int g = 0; g < B; g += 2 * d) {
+                    boolean up = (g & k) == 0;
+                    for (int i = g; i < g + d; i += lanes) {
+                        LongVector x = LongVector.fromArray(L, b, i), y = LongVector.fromArray(L, b, i + d);
+                        LongVector lo = x.min(y), hi = x.max(y);
+                        (up ? lo : hi).intoArray(b, i);
+                        (up ? hi : lo).intoArray(b, i + d);
+                    }
+                }
+            }
+            for (int i = 0; i < B; i += lanes) {
+                LongVector x = LongVector.fromArray(L, b, i);
+                boolean up = (i & k) == 0;
+                for (int d = Math.min(k, lanes) >> 1; d > 0; d >>= 1) {
+                    LongVector y = x.rearrange(L_SWAP[lg(d)]);
+                    LongVector lo = x.min(y), hi = x.max(y);
+                    if (k < lanes) x = lo.blend(hi, L_SMALL[lg(k)][lg(d)]);
+                    else if (up)   x = lo.blend(hi, L_UPPER[lg(d)]);
+                    else           x = hi.blend(lo, L_UPPER[lg(d)]);
+                }
+                x.intoArray(b, i);
+            }
+        }
+    }
+
+    // 向量的 MIN / MAX 和 Math.min / max 一樣：-0.0 < 0.0；NaN 已經在外面排除
+    public static void network(double[] b, int B) {
+        int lanes = D.length();
+        for (int k = 2; k <= B; k <<= 1) {
+            for (int d = k >> 1; d >= lanes; d >>= 1) {
+                for (int g = 0; g < B; g += 2 * d) {
+                    boolean up = (g & k) == 0;
+                    for (int i = g; i < g + d; i += lanes) {
+                        DoubleVector x = DoubleVector.fromArray(D, b, i), y = DoubleVector.fromArray(D, b, i + d);
+                        DoubleVector lo = x.min(y), hi = x.max(y);
+                        (up ? lo : hi).intoArray(b, i);
+                        (up ? hi : lo).intoArray(b, i + d);
+                    }
+                }
+            }
+            for (int i = 0; i < B; i += lanes) {
+                DoubleVector x = DoubleVector.fromArray(D, b, i);
+                boolean up = (i & k) == 0;
+                for (int d = Math.min(k, lanes) >> 1; d > 0; d >>= 1) {
+                    DoubleVector y = x.rearrange(D_SWAP[lg(d)]);
+                    DoubleVector lo = x.min(y), hi = x.max(y);
+                    if (k < lanes) x = lo.blend(hi, D_SMALL[lg(k)][lg(d)]);
+                    else if (up)   x = lo.blend(hi, D_UPPER[lg(d)]);
+                    else           x = hi.blend(lo, D_UPPER[lg(d)]);
+                }
+                x.intoArray(b, i);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * PrimitiveSortBenchmark.java
+ *
+ * 比較「Comparable[] 版本」和「基本型別 / Comparator 版本」的排序速度
+ * -----------------------------------------------------------------------------
+ * 為什麼會比較快：
+ * - Comparable[]：每個元素都是 boxing 過的 Integer，比較要經過 compareTo 的虛擬呼叫，
+ *   而且陣列裡存的是參考，資料分散在 heap 上（快取不友善）
+ * - int[] / long[] / double[]：值直接放在陣列裡，比較就是一個 CPU 指令
+ * - T[] + Comparator：仍然是物件，但呼叫點只有一種 Comparator，JIT 容易內聯
+ *
+ * 量測方式：
+ * - 同一份隨機資料複製給每個版本，每個組合跑 5 次取最快（前幾次等於暖機）
+ * - 每次排序後用 Arrays.sort 的結果驗證
+ * - 都用不帶 SortStats 的版本（不計數、不追蹤）
+ *
+ * 執行：
+ *   javac PrimitiveSortBenchmark.java
+ *   java PrimitiveSortBenchmark              // 平方時間的排序 N=2000，Shell N=200000
+ *   java PrimitiveSortBenchmark 5000 1000000
+ */
+public class PrimitiveSortBenchmark {
+
+    private static final int REPS = 5;
+
+    // 對同一份資料跑 REPS 次，回傳最快的毫秒數
+    private interface Run { void sort(); }
+    private interface Reset { void reset(); }
+
+    private static double best(Reset reset, Run run, Runnable verify) {
+        double best = Double.MAX_VALUE;
+        for (int r = 0; r < REPS; r++) {
+            reset.reset();
+            long start = System.nanoTime();
+            run.sort();
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+            verify.run();
+        }
+        return best;
+    }
+
+    private static void check(boolean ok, String label) {
+        if (!ok) throw new IllegalStateException(label + " 排序結果錯誤");
+    }
+
+    // 量測一個演算法的五種版本
+    private static void compare(String name, int N, Random random,
+                                java.util.function.Consumer<Comparable[]> comparable,
+                                java.util.function.Consumer<int[]> ints,
+                                java.util.function.Consumer<long[]> longs,
+                                java.util.function.Consumer<double[]> doubles,
+                                java.util.function.BiConsumer<Integer[], Comparator<Integer>> generic) {
+        int[] source = new int[N];
+        for (int i = 0; i < N; i++) source[i] = random.nextInt();
+        int[] expected = source.clone();
+        Arrays.sort(expected);
+
+        Comparable[] c = new Comparable[N];
+        double tc = best(() -> { for (int i = 0; i < N; i++) c[i] = source[i]; },
+                         () -> comparable.accept(c),
+                         () -> { for (int i = 0; i < N; i++) check((Integer) c[i] == expected[i], name + " Comparable[]"); });
+
+        int[] a = new int[N];
+        double ti = best(() -> System.arraycopy(source, 0, a, 0, N),
+                         () -> ints.accept(a),
+                         () -> check(Arrays.equals(a, expected), name + " int[]"));
+
+        long[] l = new long[N];
+        double tl = best(() -> { for (int i = 0; i < N; i++) l[i] = source[i]; },
+                         () -> longs.accept(l),
+                         () -> { for (int i = 0; i < N; i++) check(l[i] == expected[i], name + " long[]"); });
+
+        double[] d = new double[N];
+        double td = best(() -> { for (int i = 0; i < N; i++) d[i] = source[i]; },
+                         () -> doubles.accept(d),
+                         () -> { for (int i = 0; i < N; i++) check(d[i] == expected[i], name + " double[]"); });
+
+        Integer[] g = new Integer[N];
+        Comparator<Integer> order = Integer::compare;
+        double tg = best(() -> { for (int i = 0; i < N; i++) g[i] = source[i]; },
+                         () -> generic.accept(g, order),
+                         () -> { for (int i = 0; i < N; i++) check(g[i] == expected[i], name + " Comparator"); });
+
+        System.out.printf("%-20s %8d %12.2f %10.2f (%4.1fx) %10.2f (%4.1fx) %10.2f (%4.1fx) %10.2f (%4.1fx)%n",
+                name, N, tc, ti, tc / ti, tl, tc / tl, td, tc / td, tg, tc / tg);
+    }
+
+    public static void main(String[] args) {
+        int quadraticN = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int shellN = args.length > 1 ? Integer.parseInt(args[1]) : 200_000;
+
+        Random random = new Random(42);
+        System.out.printf("%-20s %8s %12s %17s %17s %17s %17s%n",
+                "演算法 (ms)", "N", "Comparable[]", "int[]", "long[]", "double[]", "T[]+Comparator");
+        compare("Insertion.sortSwap", quadraticN, random,
+                Insertion::sortSwap, Insertion::sortSwap, Insertion::sortSwap, Insertion::sortSwap, Insertion::sortSwap);
+        compare("Insertion.sortShift", quadraticN, random,
+                Insertion::sortShift, Insertion::sortShift, Insertion::sortShift, Insertion::sortShift, Insertion::sortShift);
+        compare("Selection.sort", quadraticN, random,
+                Selection::sort, Selection::sort, Selection::sort, Selection::sort, Selection::sort);
+        compare("Shell.sort", shellN, random,
+                Shell::sort, Shell::sort, Shell::sort, Shell::sort, Shell::sort);
+    }
+}
@@ -0,0 +1,373 @@
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * ExternalSort.java
+ *
+ * 外部排序：排序比 heap 還大的 int 鍵檔
+ * -----------------------------------------------------------------------------
+ * 檔案格式：連續的 int（big-endian，和 DataOutputStream / ByteBuffer 預設相同），沒有檔頭
+ *
+ * 流程：
+ *   1) 產生 run：把輸入切成 chunk，每個 chunk 用記憶體映射讀進 int[]，
+ *      用 HybridSort 排好（小範圍交給 SortingNetwork 收尾）後寫成一個 run 檔；
+ *      threads 個 worker 輪流拿 chunk，每個 worker 的 int[] 和寫出緩衝區只配置一次
+ *   2) 合併：用 loser tree 做 k 路合併；每個 run 一個大的循序讀取緩衝區，輸出也是一個大緩衝區
+ *      run 的個數超過 fan-in 時分成好幾趟（pass），每趟把 fan-in 個 run 併成一個；
+ *      這 fan-in + 1 個緩衝區在每一趟、每一組之間重複使用
+ *
+ * 記憶體預算 memoryBudget（bytes）：
+ *   - 產生 run 時：每個 worker 一個 blockBytes 的寫出緩衝區 + 一個 chunk
+ *     → chunk = (memoryBudget - threads·blockBytes) / threads
+ *     （預算不夠讓每個 chunk 至少和寫出緩衝區一樣大時，減少 threads）
+ *   - 合併時：fan-in 個輸入緩衝區 + 1 個輸出緩衝區，每個 blockBytes
+ *     → fan-in = memoryBudget / blockBytes - 1（預算太小時會縮小 blockBytes，fan-in 至少 2）
+ *
+ * 回報：run 個數、趟數（產生 run 算一趟）、讀寫的 bytes、各階段時間
+ *
+ * 執行：
+ *   java ExternalSort                                   // 產生 2500 萬個隨機 int（100 MB），預算 16 MB
+ *   java ExternalSort 100000000 64                      // 4 億 bytes 的資料、預算 64 MB
+ *   java ExternalSort sort <輸入檔> <輸出檔> <預算 MB> [blockKB] [threads]
+ */
+public class ExternalSort {
+
+    // 排序的統計
+    public static final class Report {
+        public int runs;            // 第一趟產生的 run 個數
+        public int passes;          // 對全部資料的讀寫趟數（產生 run 算一趟）
+        public int fanIn;
+        public long bytesRead;
+        public long bytesWritten;
+        public double runSeconds;
+        public double mergeSeconds;
+
+        @Override
+        public String toString() {
+            return String.format("runs=%d, fan-in=%d, passes=%d, 讀 %.1f MB, 寫 %.1f MB, 產生 run %.2f s, 合併 %.2f s",
+                    runs, fanIn, passes, bytesRead / 1e6, bytesWritten / 1e6, runSeconds, mergeSeconds);
+        }
+    }
+
+    private final long memoryBudget;
+    private final int blockBytes;
+    private final int threads;
+    private final Path tempDir;
+
+    public ExternalSort(long memoryBudget, int blockBytes, int threads, Path tempDir) {
+        if (memoryBudget < 64) throw new IllegalArgumentException("記憶體預算太小: " + memoryBudget);
+        this.memoryBudget = memoryBudget;
+        // 預算至少要放得下 2 個輸入 + 1 個輸出緩衝區
+        this.blockBytes = (int) Math.max(4, Math.min(blockBytes, memoryBudget / 3) & ~3L);
+        // 產生 run 時每個 worker 要 chunk + 寫出緩衝區，chunk 至少和寫出緩衝區一樣大
+        this.threads = (int) Math.max(1, Math.min(threads, memoryBudget / (2L * this.blockBytes)));
+        this.tempDir = tempDir;
+    }
+
+    public int fanIn() {
+        return (int) Math.max(2, memoryBudget / blockBytes - 1);
+    }
+
+    /**
+     * 排序 input 寫到 output
+     */
+    public Report sort(Path input, Path output) throws Exception {
+        long size = Files.size(input);
+        if (size % 4 != 0) throw new IOException("檔案長度不是 4 的倍數: " + input);
+        Report report = new Report();
+        report.fanIn = fanIn();
+
+        long start = System.nanoTime();
+        List<Path> runs = createRuns(input, size, report);
+        report.runs = runs.size();
+        report.passes = 1;
+        report.runSeconds = (System.nanoTime() - start) / 1e9;
+
+        start = System.nanoTime();
+        // 合併用的緩衝區：每一組最多 fan-in 個輸入 + 1 個輸出，整個合併階段共用
+        ByteBuffer[] slots = new ByteBuffer[Math.min(report.fanIn, runs.size())];
+        for (int i = 0; i < slots.length; i++) slots[i] = ByteBuffer.allocateDirect(blockBytes);
+        ByteBuffer outBuf = ByteBuffer.allocateDirect(blockBytes);
+        int generation = 0;
+        while (runs.size() > 1) {
+            List<Path> next = new ArrayList<>();
+            boolean last = runs.size() <= report.fanIn;
+            for (int from = 0; from < runs.size(); from += report.fanIn) {
+                List<Path> group = runs.subList(from, Math.min(from + report.fanIn, runs.size()));
+                Path target = last ? output : tempDir.resolve(String.format("merge-%d-%05d.bin", generation, next.size()));
+                merge(group, target, slots, outBuf, report);
+                for (Path run : group) Files.delete(run);
+                next.add(target);
+            }
+            runs = next;
+            report.passes++;
+            generation++;
+        }
+        if (runs.size() == 1 && !runs.get(0).equals(output)) {
+            Files.move(runs.get(0), output, StandardCopyOption.REPLACE_EXISTING);
+        } else if (runs.isEmpty()) {
+            Files.deleteIfExists(output);
+            Files.createFile(output);
+        }
+        report.mergeSeconds = (System.nanoTime() - start) / 1e9;
+        return report;
+    }
+
+    // === 第一趟：產生 run ===
+
+    private List<Path> createRuns(Path input, long size, Report report) throws Exception {
+        // 預算扣掉每個 worker 的寫出緩衝區，剩下的平分給 threads 個 chunk
+        long chunkInts = Math.max(1, Math.min(Integer.MAX_VALUE - 8, (memoryBudget - (long) threads * blockBytes) / 4 / threads));
+        long totalInts = size / 4;
+        int chunks = (int) ((totalInts + chunkInts - 1) / chunkInts);
+        int workers = Math.max(1, Math.min(threads, chunks));
+        List<Path> runs = new ArrayList<>();
+        for (int c = 0; c < chunks; c++) runs.add(tempDir.resolve(String.format("run-%05d.bin", c)));
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        try (FileChannel in = FileChannel.open(input, StandardOpenOption.READ)) {
+            List<Future<?>> pending = new ArrayList<>();
+            for (int w = 0; w < workers; w++) {
+                int first = w;
+                // worker w 處理第 w, w + workers, w + 2·workers, ... 個 chunk
+                pending.add(pool.submit(() -> {
+                    int[] a = new int[(int) Math.min(chunkInts, totalInts)];
+                    ByteBuffer buf = ByteBuffer.allocateDirect(blockBytes);
+                    for (int c = first; c < chunks; c += workers) {
+                        long from = c * chunkInts;
+                        int n = (int) Math.min(chunkInts, totalInts - from);
+                        in.map(FileChannel.MapMode.READ_ONLY, 4 * from, 4L * n).asIntBuffer().get(a, 0, n);
+                        HybridSort.sort(a, 0, n);
+                        writeRun(a, n, runs.get(c), buf);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : pending) f.get();
+        } finally {
+            pool.shutdown();
+        }
+        report.bytesRead += size;
+        report.bytesWritten += size;
+        return runs;
+    }
+
+    // 把 a[0..n) 寫成 run 檔；buf 是呼叫者的寫出緩衝區
+    private static void writeRun(int[] a, int n, Path run, ByteBuffer buf) throws IOException {
+        try (FileChannel out = FileChannel.open(run, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            IntBuffer ints = buf.clear().asIntBuffer();
+            for (int from = 0; from < n; ) {
+                int m = Math.min(ints.capacity(), n - from);
+                ints.clear();
+                ints.put(a, from, m);
+                buf.clear().limit(4 * m);
+                while (buf.hasRemaining()) out.write(buf);
+                from += m;
+            }
+        }
+    }
+
+    // === 合併：loser tree ===
+
+    // 一個 run 的循序讀取；buf 是合併階段共用的緩衝區之一
+    private static final class RunReader implements AutoCloseable {
+        private final FileChannel ch;
+        private final ByteBuffer buf;
+        private final Report report;
+        int key;
+        boolean done;
+
+        RunReader(Path run, ByteBuffer buf, Report report) throws IOException {
+            this.ch = FileChannel.open(run, StandardOpenOption.READ);
+            this.buf = buf;
+            this.report = report;
+            buf.clear().flip();
+            advance();
+        }
+
+        void advance() throws IOException {
+            if (buf.remaining() < 4) {
+                buf.compact();
+                while (buf.position() < 4) {
+                    int n = ch.read(buf);
+                    if (n < 0) break;
+                    report.bytesRead += n;
+                }
+                buf.flip();
+                if (buf.remaining() < 4) {
+                    done = true;
+                    return;
+                }
+            }
+            key = buf.getInt();
+        }
+
+        @Override
+        public void close() throws IOException {
+            ch.close();
+        }
+    }
+
+    // 把 group 併成 target；第 i 個 run 用 slots[i] 讀，buf 寫
+    private static void merge(List<Path> group, Path target, ByteBuffer[] slots, ByteBuffer buf, Report report) throws IOException {
+        int k = group.size();
+        RunReader[] in = new RunReader[k];
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            for (int i = 0; i < k; i++) in[i] = new RunReader(group.get(i), slots[i], report);
+            LoserTree tree = new LoserTree(in);
+            buf.clear();
+            for (int w = tree.winner(); !in[w].done; w = tree.winner()) {
+                if (!buf.hasRemaining()) report.bytesWritten += flush(buf, out);
+                buf.putInt(in[w].key);
+                in[w].advance();
+                tree.replay(w);
+            }
+            report.bytesWritten += flush(buf, out);
+        } finally {
+            for (RunReader r : in) if (r != null) r.close();
+        }
+    }
+
+    private static int flush(ByteBuffer buf, FileChannel out) throws IOException {
+        buf.flip();
+        int n = buf.remaining();
+        while (buf.hasRemaining()) out.write(buf);
+        buf.clear();
+        return n;
+    }
+
+    // 敗者樹：tree[1..k-1] 存每場比賽的敗者，tree[0] 存總冠軍；葉子 i 的父節點是 (i + k) / 2
+    // 冠軍換成下一個鍵後，只要沿著它到根的路徑重賽一次：每個鍵 ⌈lg k⌉ 次比較
+    private static final class LoserTree {
+        private final RunReader[] in;
+        private final int[] tree;
+        private final int k;
+
+        LoserTree(RunReader[] in) {
+            this.in = in;
+            this.k = in.length;
+            this.tree = new int[Math.max(k, 1)];
+            java.util.Arrays.fill(tree, -1);
+            for (int i = k - 1; i >= 0; i--) replay(i);
+        }
+
+        int winner() {
+            return tree[0];
+        }
+
+        // 已經讀完的 run 永遠輸；鍵相同時索引小的贏（穩定）
+        private boolean beats(int a, int b) {
+            if (in[a].done) return false;
+            if (in[b].done) return true;
+            return in[a].key < in[b].key || (in[a].key == in[b].key && a < b);
+        }
+
+        void replay(int s) {
+            for (int t = (s + k) >> 1; t > 0; t >>= 1) {
+                if (tree[t] == -1) {            // 建樹時：這個節點第一次有人到，先停在這裡
+                    tree[t] = s;
+                    return;
+                }
+                if (beats(tree[t], s)) {
+                    int loser = s;
+                    s = tree[t];
+                    tree[t] = loser;
+                }
+            }
+            tree[0] = s;
+        }
+    }
+
+    // === 主程式 ===
+
+    private static void generate(Path file, long count, long seed) throws IOException {
+        Random random = new Random(seed);
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file.toFile()), 1 << 20))) {
+            for (long i = 0; i < count; i++) out.writeInt(random.nextInt());
+        }
+    }
+
+    // 檢查 output 是 input 排序後的結果：遞增，而且元素的和 / 平方和 / 個數都相同
+    private static void verify(Path input, Path output) throws IOException {
+        long[] in = digest(input, false), out = digest(output, true);
+        if (in[0] != out[0] || in[1] != out[1] || in[2] != out[2]) throw new IllegalStateException("輸出和輸入的元素不同");
+    }
+
+    private static long[] digest(Path file, boolean checkSorted) throws IOException {
+        long count = 0, sum = 0, squares = 0;
+        int previous = Integer.MIN_VALUE;
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = ch.size();
+            for (long offset = 0; offset < size; offset += 1L << 28) {
+                IntBuffer ints = ch.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(1L << 28, size - offset)).asIntBuffer();
+                while (ints.hasRemaining()) {
+                    int x = ints.get();
+                    if (checkSorted && x < previous) throw new IllegalStateException("輸出沒有排好，位置 " + count);
+                    previous = x;
+                    count++;
+                    sum += x;
+                    squares += (long) x * x;
+                }
+            }
+        }
+        return new long[] { count, sum, squares };
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length > 0 && args[0].equals("sort")) {
+            long budget = Long.parseLong(args[3]) << 20;
+            int block = args.length > 4 ? Integer.parseInt(args[4]) << 10 : 1 << 20;
+            int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+            Path tmp = Files.createTempDirectory(Path.of(args[2]).toAbsolutePath().getParent(), "external-sort");
+            Report report = new ExternalSort(budget, block, threads, tmp).sort(Path.of(args[1]), Path.of(args[2]));
+            Files.delete(tmp);
+            System.out.println(report);
+            return;
+        }
+
+        long count = args.length > 0 ? Long.parseLong(args[0]) : 25_000_000;
+        long budgetMB = args.length > 1 ? Long.parseLong(args[1]) : 16;
+        Path dir = Files.createTempDirectory("external-sort-demo");
+        Path input = dir.resolve("keys.bin"), output = dir.resolve("sorted.bin");
+        generate(input, count, 42);
+        System.out.printf("%d 個 int（%.1f MB），預算 %d MB%n", count, 4.0 * count / 1e6, budgetMB);
+
+        // 同一份資料，用不同的 block 大小（→ 不同的 fan-in 和趟數）
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int blockKB : new int[] { 4096, 1024, 256, 64 }) {
+            Path tmp = Files.createTempDirectory(dir, "runs");
+            ExternalSort sorter = new ExternalSort(budgetMB << 20, blockKB << 10, threads, tmp);
+            Report report = sorter.sort(input, output);
+            verify(input, output);
+            System.out.printf("block %5d KB : %s%n", blockKB, report);
+            Files.delete(tmp);
+        }
+
+        // 預算很小時會變成多趟合併
+        Path tmp = Files.createTempDirectory(dir, "runs");
+        Report report = new ExternalSort(1 << 20, 256 << 10, threads, tmp).sort(input, output);
+        verify(input, output);
+        System.out.printf("預算 1 MB      : %s%n", report);
+        Files.delete(tmp);
+
+        Files.delete(input);
+        Files.delete(output);
+        Files.delete(dir);
+    }
+}
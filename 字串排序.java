@@ -0,0 +1,312 @@
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * StringSort.java
+ *
+ * 字串專用排序：MSD radix sort 與三向字串快速排序（3-way radix quicksort）
+ * -----------------------------------------------------------------------------
+ * 為什麼要專用：
+ *   - String.compareTo 每次都從第 0 個字元開始比；鍵有很長的共同前綴（URL、檔案路徑）時，
+ *     同一段前綴會在每次比較裡被重新掃一遍
+ *   - 這兩種排序都是「第 d 個字元」一層一層往下分，前 d 個字元已知相同，不用再看
+ *     → 每個字元大約只讀一次（加上小範圍收尾時的少量重讀）
+ *
+ * (A) MSD radix sort（sort）：
+ *   - 依第 d 個字元做 key-indexed counting，分到 R+1 個桶（字串結尾 = -1 排最前面），每個桶再遞迴排 d+1
+ *   - 只處理實際出現的字元範圍；全部都落在同一個桶（共同前綴）時不做分配，
+ *     再用一趟（regionMatches）算出共同前綴還有多長，整段跳過
+ *   - 最大的桶用迴圈往下走、其他桶遞迴，堆疊深度最多 lg N
+ *   - 需要和輸入一樣大的輔助陣列；字母表 R = 256，計數時遇到 >= 256 的字元，
+ *     那個範圍就改用 (B)
+ * (B) 三向字串快速排序（sort3way）：
+ *   - 以第 d 個字元切成 < v、= v、> v 三段；= v 那段往 d+1 走，另外兩段仍然比第 d 個字元
+ *   - In-place、不需要字母表大小，任何 Unicode 字串都可以；pivot 取三個字元的中位數
+ * 兩者在範圍 <= CUTOFF 時都交給 Insertion.sortBinary，比較時從第 d 個字元開始
+ *
+ * 順序和 String.compareTo 相同（UTF-16 code unit 的字典序）；不穩定。
+ *
+ * 執行：
+ *   java StringSort                    // URL、路徑、短隨機字串三種資料，和 Comparable[] 的排序比時間
+ *   java StringSort 500000
+ */
+public class StringSort {
+
+    private static final int R = 256;        // MSD 的字母表大小（extended ASCII）
+    private static final int CUTOFF = 15;    // 小範圍改用插入排序
+
+    // 第 d 個字元；超過字串結尾回傳 -1（比任何字元都小）
+    private static int charAt(String s, int d) {
+        return d < s.length() ? s.charAt(d) : -1;
+    }
+
+    // 從第 d 個字元開始比較（前 d 個字元已知相同）
+    private static int compareFrom(String v, String w, int d) {
+        int n = Math.min(v.length(), w.length());
+        for (int i = d; i < n; i++) {
+            char a = v.charAt(i), b = w.charAt(i);
+            if (a != b) return a - b;
+        }
+        return v.length() - w.length();
+    }
+
+    private static void insertion(String[] a, int lo, int hi, int d) {
+        Insertion.sortBinary(a, lo, hi + 1, (v, w) -> compareFrom(v, w, d));
+    }
+
+    private static void exch(String[] a, int i, int j) {
+        String t = a[i]; a[i] = a[j]; a[j] = t;
+    }
+
+    // ========================= (A) MSD radix sort =========================
+
+    public static void sort(String[] a) {
+        new Msd(a.length).sort(a, 0, a.length - 1, 0, 0);
+    }
+
+    // a[lo..hi] 從第 d 個字元起和 a[lo] 相同的長度，最多 limit（每個鍵都至少有 d + limit 個字元）；
+    // 整個範圍只掃一趟，相同的部分用 regionMatches 整段比
+    private static int commonPrefix(String[] a, int lo, int hi, int d, int limit) {
+        String first = a[lo];
+        int lcp = limit;
+        for (int i = lo + 1; i <= hi && lcp > 0; i++) {
+            String s = a[i];
+            if (s.regionMatches(d, first, d, lcp)) continue;
+            int k = 0;
+            while (k < lcp && s.charAt(d + k) == first.charAt(d + k)) k++;
+            lcp = k;
+        }
+        return lcp;
+    }
+
+    // MSD 的工作空間：輔助陣列 + 每一層遞迴一個 count 陣列（用完就清回 0，不必每次重新配置）
+    private static final class Msd {
+        private final String[] aux;
+        private int[][] counts = new int[16][];
+
+        Msd(int N) {
+            aux = new String[N];
+        }
+
+        private int[] count(int level) {
+            if (level == counts.length) counts = Arrays.copyOf(counts, 2 * level);
+            if (counts[level] == null) counts[level] = new int[R];
+            return counts[level];
+        }
+
+        // 排序 a[lo..hi]，前 d 個字元都相同
+        void sort(String[] a, int lo, int hi, int d, int level) {
+            int[] count = count(level);
+            while (hi > lo + CUTOFF) {
+                // 1) 計數；只記錄實際出現的字元範圍 [min, max]，結尾（-1）另外算，順便記下最短的鍵長
+                int ends = 0, min = R, max = -1, shortest = Integer.MAX_VALUE;
+                for (int i = lo; i <= hi; i++) {
+                    int length = a[i].length();
+                    if (length < shortest) shortest = length;
+                    if (d >= length) { ends++; continue; }
+                    int c = a[i].charAt(d);
+                    if (c >= R) {                    // 超出字母表：這個範圍改用三向字串快速排序
+                        if (max >= 0) Arrays.fill(count, min, max + 1, 0);
+                        sort3way(a, lo, hi, d);
+                        return;
+                    }
+                    count[c]++;
+                    if (c < min) min = c;
+                    if (c > max) max = c;
+                }
+                // 全部的第 d 個字元都相同（共同前綴）：不做分配，一趟算出後面還有多長的共同前綴，整段跳過
+                if (ends == 0 && count[min] == hi - lo + 1) {
+                    count[min] = 0;
+                    d += 1 + commonPrefix(a, lo, hi, d + 1, shortest - d - 1);
+                    continue;
+                }
+
+                // 2) 每個桶的起點（結尾的字串排最前面），再分配到 aux、複製回來
+                for (int c = min, start = ends; c <= max; c++) {
+                    int n = count[c];
+                    count[c] = start;
+                    start += n;
+                }
+                for (int i = lo, end = 0; i <= hi; i++) {
+                    int c = charAt(a[i], d);
+                    aux[c < 0 ? end++ : count[c]++] = a[i];
+                }
+                System.arraycopy(aux, 0, a, lo, hi - lo + 1);
+
+                // 3) 現在 count[c] 是桶 c 的終點；結尾的那一桶已經全部相同，其他每一桶往下一個字元排：
+                //    最大的桶用迴圈處理，其他的遞迴 → 堆疊深度最多 lg N（"a", "aa", "aaa", ... 也不會用完堆疊）
+                int bigStart = 0, bigEnd = 0;
+                for (int c = min, start = ends; c <= max; c++) {
+                    int end = count[c];
+                    count[c] = 0;
+                    if (end - start > bigEnd - bigStart) {
+                        if (bigEnd - bigStart > 1) sort(a, lo + bigStart, lo + bigEnd - 1, d + 1, level + 1);
+                        bigStart = start;
+                        bigEnd = end;
+                    } else if (end - start > 1) {
+                        sort(a, lo + start, lo + end - 1, d + 1, level + 1);
+                    }
+                    start = end;
+                }
+                hi = lo + bigEnd - 1;
+                lo = lo + bigStart;
+                d++;
+            }
+            insertion(a, lo, hi, d);
+        }
+    }
+
+    // ========================= (B) 三向字串快速排序 =========================
+
+    public static void sort3way(String[] a) {
+        sort3way(a, 0, a.length - 1, 0);
+    }
+
+    private static void sort3way(String[] a, int lo, int hi, int d) {
+        while (hi > lo + CUTOFF) {
+            exch(a, lo, median3(a, lo, lo + (hi - lo) / 2, hi, d));
+            int lt = lo, gt = hi;
+            int v = charAt(a[lo], d);
+            int i = lo + 1;
+            while (i <= gt) {
+                int t = charAt(a[i], d);
+                if      (t < v) exch(a, lt++, i++);
+                else if (t > v) exch(a, i, gt--);
+                else            i++;
+            }
+            // a[lo..lt-1] < v = a[lt..gt] < a[gt+1..hi]
+            sort3way(a, lo, lt - 1, d);
+            sort3way(a, gt + 1, hi, d);
+            if (v < 0) return;                   // 中間那段都已經到字串結尾 → 全部相同
+            lo = lt; hi = gt; d++;               // 中間那段用迴圈往下一個字元走（共同前綴很長時不會把堆疊用完）
+        }
+        insertion(a, lo, hi, d);
+    }
+
+    private static int median3(String[] a, int i, int j, int k, int d) {
+        int x = charAt(a[i], d), y = charAt(a[j], d), z = charAt(a[k], d);
+        return x < y ? (y < z ? j : x < z ? k : i)
+                     : (z < y ? j : z < x ? k : i);
+    }
+
+    // ========================= 主程式 =========================
+
+    private static final String[] HOSTS = { "www.example.com", "api.example.com", "static.example-cdn.net", "shop.example.org" };
+    private static final String[] WORDS = { "products", "category", "electronics", "phones", "accessories", "search",
+            "users", "profile", "settings", "orders", "history", "images", "thumbnails", "v1", "v2", "docs" };
+
+    static String[] urls(int N, Random random) {
+        String[] a = new String[N];
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < N; i++) {
+            sb.setLength(0);
+            sb.append("https://").append(HOSTS[random.nextInt(HOSTS.length)]);
+            int depth = 2 + random.nextInt(4);
+            for (int k = 0; k < depth; k++) sb.append('/').append(WORDS[random.nextInt(WORDS.length)]);
+            sb.append("?id=").append(random.nextInt(1_000_000)).append("&lang=zh-TW");
+            a[i] = sb.toString();
+        }
+        return a;
+    }
+
+    static String[] paths(int N, Random random) {
+        String[] a = new String[N];
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < N; i++) {
+            sb.setLength(0);
+            sb.append("/home/build/workspace/project/src/main/java/org/example");
+            int depth = 1 + random.nextInt(4);
+            for (int k = 0; k < depth; k++) sb.append('/').append(WORDS[random.nextInt(WORDS.length)]);
+            sb.append("/File").append(random.nextInt(100_000)).append(".java");
+            a[i] = sb.toString();
+        }
+        return a;
+    }
+
+    static String[] shortRandom(int N, Random random) {
+        String[] a = new String[N];
+        for (int i = 0; i < N; i++) {
+            char[] c = new char[4 + random.nextInt(8)];
+            for (int k = 0; k < c.length; k++) c[k] = (char) ('a' + random.nextInt(26));
+            a[i] = new String(c);
+        }
+        return a;
+    }
+
+    private interface Sort { void sort(String[] a); }
+
+    // 對同一份資料跑 3 次取最快（ms），並和 Arrays.sort 的結果比對
+    private static double best(String[] source, String[] expected, Sort sort, String name) {
+        double best = Double.MAX_VALUE;
+        for (int r = 0; r < 3; r++) {
+            String[] a = source.clone();
+            long start = System.nanoTime();
+            sort.sort(a);
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+            if (!Arrays.equals(a, expected)) throw new IllegalStateException(name + " 排序結果錯誤");
+        }
+        return best;
+    }
+
+    public static void main(String[] args) {
+        int N = args.length > 0 ? Integer.parseInt(args[0]) : 200_000;
+        int quadraticN = Math.min(N, 10_000);
+
+        // 正確性：含空字串、前綴、非 ASCII（會走 sort3way）
+        String[] special = { "she", "", "sells", "seashells", "by", "the", "sea", "shore", "s", "sh", "海", "海邊", "貝殼", "" };
+        String[] expected = special.clone();
+        Arrays.sort(expected);
+        String[] a = special.clone();
+        sort(a);
+        String[] b = special.clone();
+        sort3way(b);
+        if (!Arrays.equals(a, expected) || !Arrays.equals(b, expected)) throw new IllegalStateException("特殊字串排序錯誤");
+
+        // 巢狀前綴 "a", "aa", "aaa", ...（每一層都分出一個結尾的鍵）；以及字串中間才出現 >= 256 的字元
+        String[] nested = new String[10_000];
+        for (int i = 0; i < nested.length; i++) nested[i] = "a".repeat(nested.length - i);
+        String[] mixed = urls(10_000, new Random(3));
+        for (int i = 0; i < mixed.length; i += 7) mixed[i] = mixed[i].replace("zh-TW", "中文");
+        for (String[] source : new String[][] { nested, mixed }) {
+            expected = source.clone();
+            Arrays.sort(expected);
+            a = source.clone();
+            sort(a);
+            b = source.clone();
+            sort3way(b);
+            if (!Arrays.equals(a, expected) || !Arrays.equals(b, expected)) throw new IllegalStateException("巢狀前綴 / 非 ASCII 排序錯誤");
+        }
+
+        // 暖機：每種排序先排一次小的資料
+        Random warm = new Random(7);
+        for (int r = 0; r < 5; r++) {
+            String[] w = urls(quadraticN, warm);
+            sort(w.clone()); sort3way(w.clone()); Arrays.sort(w.clone()); HybridSort.sort(w.clone()); Shell.sort(w.clone());
+        }
+
+        String[] names = { "StringSort.sort (MSD)", "StringSort.sort3way", "Arrays.sort", "HybridSort.sort", "Shell.sort", "Insertion.sortShift" };
+        Sort[] sorts = { StringSort::sort, StringSort::sort3way, Arrays::sort, HybridSort::sort, Shell::sort, Insertion::sortShift };
+
+        System.out.printf("%-10s %8s", "資料", "N");
+        for (String name : names) System.out.printf(" %22s", name);
+        System.out.println("   （ms，3 次取最快）");
+        String[] kinds = { "url", "path", "short" };
+        for (String kind : kinds) {
+            for (int n : new int[] { quadraticN, N }) {
+                Random random = new Random(42);
+                String[] source = kind.equals("url") ? urls(n, random) : kind.equals("path") ? paths(n, random) : shortRandom(n, random);
+                String[] sorted = source.clone();
+                Arrays.sort(sorted);
+                System.out.printf("%-10s %8d", kind, n);
+                for (int s = 0; s < sorts.length; s++) {
+                    if (s == sorts.length - 1 && n > quadraticN) {
+                        System.out.printf(" %22s", "-");
+                        continue;
+                    }
+                    System.out.printf(" %22.1f", best(source, sorted, sorts[s], names[s]));
+                }
+                System.out.println();
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * ParallelShell.java
+ *
+ * 平行 Shellsort（int[]）＋ 可選的步長序列
+ * ----------------------------------------------------------
+ * 直覺：
+ *   - 固定一個 h 時，陣列其實是 h 條互不相干的子序列（鏈）：
+ *       鏈 c = a[c], a[c+h], a[c+2h], ...（c = 0..h-1）
+ *   - 每條鏈各自做插入排序，互不影響 → 可以分給不同的核心
+ *   - h 大的時候鏈很多、每條很短，平行效果好；h 小的時候鏈太少，改回循序的寫法
+ *
+ * 步長序列（都由大到小使用，最後一個一定是 1）：
+ *   KNUTH     ：1, 4, 13, 40, ...（3x+1，Shell.sort 用的就是這個）
+ *   CIURA     ：1, 4, 10, 23, 57, 132, 301, 701, 1750，之後每次 ×2.25
+ *   TOKUDA    ：⌈(9^k − 4^k) / (5·4^(k−1))⌉ = 1, 4, 9, 20, 46, 103, ...
+ *   SEDGEWICK ：4^k + 3·2^(k−1) + 1（前面加上 1）= 1, 8, 23, 77, 281, ...
+ *   自訂      ：sort(a, gaps, pool)，gaps 由大到小、最後是 1
+ *
+ * 特性：In-place、不穩定；最壞情況依序列而定
+ *
+ * 執行：
+ *   java ParallelShell                 // 每種序列在 N = 10^5, 10^6, 10^7、核心數 1, 2, 4, ... 的時間
+ *   java ParallelShell 1000000         // 只量 N = 10^6
+ */
+public class ParallelShell {
+
+    public enum Gaps { KNUTH, CIURA, TOKUDA, SEDGEWICK }
+
+    // 鏈的個數（= h）至少這麼多才平行；每個子任務至少負責這麼多個元素
+    private static final int PARALLEL_MIN_CHAINS = 64;
+    private static final int TASK_MIN_ELEMENTS = 1 << 15;
+
+    /**
+     * 產生小於 N 的步長，由大到小排列（最後一個是 1）
+     */
+    public static int[] gaps(Gaps sequence, int N) {
+        long[] g = new long[64];
+        int k = 0;
+        switch (sequence) {
+            case KNUTH:
+                g[k++] = 1;
+                while (g[k-1] < N / 3) { g[k] = 3 * g[k-1] + 1; k++; }   // 和 Shell.sort 相同的起點
+                break;
+            case CIURA: {
+                long[] base = { 1, 4, 10, 23, 57, 132, 301, 701, 1750 };
+                for (long h : base) if (h < N || k == 0) g[k++] = h;
+                if (k == base.length) {
+                    for (double h = 1750 * 2.25; h < N; h *= 2.25) g[k++] = (long) h;
+                }
+                break;
+            }
+            case TOKUDA:
+                for (int i = 1; ; i++) {
+                    long h = (long) Math.ceil((Math.pow(9, i) - Math.pow(4, i)) / (5 * Math.pow(4, i - 1)));
+                    if (h >= N && k > 0) break;
+                    g[k++] = h;
+                }
+                break;
+            case SEDGEWICK:
+                g[k++] = 1;
+                for (int i = 1; ; i++) {
+                    long h = (1L << (2 * i)) + 3 * (1L << (i - 1)) + 1;
+                    if (h >= N) break;
+                    g[k++] = h;
+                }
+                break;
+        }
+        int[] result = new int[k];
+        for (int i = 0; i < k; i++) result[i] = (int) g[k - 1 - i];
+        return result;
+    }
+
+    /**
+     * 用共用的 ForkJoinPool、Ciura 序列排序
+     */
+    public static void sort(int[] a) {
+        sort(a, gaps(Gaps.CIURA, a.length), ForkJoinPool.commonPool());
+    }
+
+    public static void sort(int[] a, Gaps sequence, ForkJoinPool pool) {
+        sort(a, gaps(sequence, a.length), pool);
+    }
+
+    /**
+     * 使用自訂的步長序列（由大到小、最後一個必須是 1）
+     */
+    public static void sort(int[] a, int[] gaps, ForkJoinPool pool) {
+        if (gaps.length == 0 || gaps[gaps.length - 1] != 1) {
+            throw new IllegalArgumentException("步長序列最後一個必須是 1: " + Arrays.toString(gaps));
+        }
+        int N = a.length;
+        for (int h : gaps) {
+            if (h >= N) continue;
+            if (pool.getParallelism() > 1 && h >= PARALLEL_MIN_CHAINS && N >= 2 * TASK_MIN_ELEMENTS) {
+                pool.invoke(new ChainTask(a, h, 0, h));
+            } else {
+                hSort(a, h);
+            }
+        }
+    }
+
+    // 循序的 h-sort（和 Shell.sort(int[]) 的內圈相同）
+    private static void hSort(int[] a, int h) {
+        for (int i = h; i < a.length; i++) {
+            int v = a[i];
+            int j = i;
+            for (; j >= h && v < a[j-h]; j -= h) a[j] = a[j-h];
+            a[j] = v;
+        }
+    }
+
+    // 對鏈 [from, to) 做插入排序：一列（h 個元素）一列往後掃，只處理這個範圍內的鏈，
+    // 每條鏈的元素仍然依序插入，但存取是連續的一段而不是跨 h 跳
+    private static void sortChains(int[] a, int h, int from, int to) {
+        int N = a.length;
+        for (int row = h; row < N; row += h) {
+            for (int i = row + from, end = Math.min(row + to, N); i < end; i++) {
+                int v = a[i];
+                int j = i;
+                for (; j >= h && v < a[j-h]; j -= h) a[j] = a[j-h];
+                a[j] = v;
+            }
+        }
+    }
+
+    // 把鏈 [from, to) 切成子任務；每條鏈約 N/h 個元素
+    private static final class ChainTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] a;
+        private final int h, from, to;
+
+        ChainTask(int[] a, int h, int from, int to) {
+            this.a = a; this.h = h; this.from = from; this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            long elements = (long) (to - from) * (a.length / h);
+            if (to - from > 1 && elements > TASK_MIN_ELEMENTS) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new ChainTask(a, h, from, mid), new ChainTask(a, h, mid, to));
+            } else {
+                sortChains(a, h, from, to);
+            }
+        }
+    }
+
+    public static boolean isSorted(int[] a) {
+        for (int i = 1; i < a.length; i++) {
+            if (a[i] < a[i-1]) return false;
+        }
+        return true;
+    }
+
+    // === 主程式：每種序列在不同 N 與核心數下的時間（ms，取 3 次最快） ===
+    public static void main(String[] args) {
+        int[] sizes = args.length > 0 ? new int[] { Integer.parseInt(args[0]) } : new int[] { 100_000, 1_000_000, 10_000_000 };
+        int cores = Runtime.getRuntime().availableProcessors();
+        Random random = new Random(42);
+
+        System.out.printf("%-10s %10s", "序列", "N");
+        for (int p = 1; ; p = Math.min(2 * p, cores)) {
+            System.out.printf("%10s", p + " 核心");
+            if (p == cores) break;
+        }
+        System.out.printf("%12s%n", "Shell.sort");
+
+        for (int N : sizes) {
+            int[] source = new int[N];
+            for (int i = 0; i < N; i++) source[i] = random.nextInt();
+            int[] a = new int[N];
+
+            for (Gaps sequence : Gaps.values()) {
+                System.out.printf("%-10s %10d", sequence, N);
+                int[] gaps = gaps(sequence, N);
+                for (int p = 1; ; p = Math.min(2 * p, cores)) {
+                    ForkJoinPool pool = new ForkJoinPool(p);
+                    double best = Double.MAX_VALUE;
+                    for (int r = 0; r < 3; r++) {
+                        System.arraycopy(source, 0, a, 0, N);
+                        long start = System.nanoTime();
+                        sort(a, gaps, pool);
+                        best = Math.min(best, (System.nanoTime() - start) / 1e6);
+                        if (!isSorted(a)) throw new IllegalStateException(sequence + " 排序結果錯誤");
+                    }
+                    pool.shutdown();
+                    System.out.printf("%10.1f", best);
+                    if (p == cores) break;
+                }
+
+                // 循序的 Shell.sort(int[])（3x+1）當參考
+                double best = Double.MAX_VALUE;
+                for (int r = 0; r < 3; r++) {
+                    System.arraycopy(source, 0, a, 0, N);
+                    long start = System.nanoTime();
+                    Shell.sort(a);
+                    best = Math.min(best, (System.nanoTime() - start) / 1e6);
+                }
+                System.out.printf("%12.1f%n", best);
+            }
+        }
+    }
+}
@@ -0,0 +1,258 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * SortBenchmark.java
+ *
+ * 各種排序在不同輸入分布下的量測（Comparable[]，元素是 Integer）
+ * -----------------------------------------------------------------------------
+ * 輸入：
+ *   random        ：均勻隨機
+ *   sorted        ：已遞增
+ *   reversed      ：遞減
+ *   nearly-sorted ：已遞增，再交換 k 組不重疊的相鄰元素 → 恰好 k 個逆序對（k = max(1, N/100)，可用 -Dk= 指定）
+ *   few-unique    ：只有 8 種不同的鍵
+ *   organ-pipe    ：先遞增再遞減（0, 1, ..., N/2, ..., 1, 0）
+ *   （另外還有 sawtooth：0..999 重複，預設不跑，可以在命令列指定）
+ *
+ * 排序：Insertion.sortSwap、Insertion.sortShift、Selection.sort、Shell.sort、HybridSort.sort，
+ *       以及 Arrays.sort（TimSort）和 Arrays.parallelSort 當基準
+ *
+ * 量測：
+ *   time       ：每次排序的時間（小的 N 一次排很多份，取平均；暖機一輪後取 3 輪最快）
+ *   bytes/sort ：量測期間這個執行緒配置的 bytes（com.sun.management.ThreadMXBean；
+ *                parallelSort 在其他執行緒的配置不會算進來）
+ *   compares / writes：另外跑一次 sort(a, stats)；HybridSort 和 Arrays.* 只能用計數的 Comparator 量比較次數
+ *
+ * Insertion / Selection 是平方時間，只量到 maxQuadraticN（預設 2^14）；
+ * 但已排序 / 接近排序時插入排序是線性的，所以上一個 N 的時間推算下來不超過 1 秒的還是會量。
+ *
+ * 執行：
+ *   java SortBenchmark                                  // N = 16, 256, ..., 2^20
+ *   java SortBenchmark 65536 nearly-sorted              // 只量到 N = 65536、只跑 nearly-sorted
+ *   java -DmaxQuadraticN=65536 -Dcsv=sort.csv SortBenchmark
+ */
+public class SortBenchmark {
+
+    static final String[] INPUTS = { "random", "sorted", "reversed", "nearly-sorted", "few-unique", "organ-pipe" };
+
+    // 小的 N 每輪至少排這麼多個元素，避免 nanoTime 的解析度蓋過排序本身
+    private static final int ELEMENTS_PER_ROUND = 1 << 16;
+    // 平方時間的排序：推算下一個 N 超過這個時間（ms）就跳過
+    private static final double QUADRATIC_BUDGET_MS = 1000;
+
+    // === 輸入產生器：產生 int[]（HybridSort 的量測也用這一組），量測 Comparable[] 時再用 boxed() 轉成 Integer[] ===
+
+    static int[] random(int N, Random random) {
+        int[] a = new int[N];
+        for (int i = 0; i < N; i++) a[i] = random.nextInt();
+        return a;
+    }
+
+    static int[] sorted(int N) {
+        int[] a = new int[N];
+        for (int i = 0; i < N; i++) a[i] = i;
+        return a;
+    }
+
+    static int[] reversed(int N) {
+        int[] a = new int[N];
+        for (int i = 0; i < N; i++) a[i] = N - i;
+        return a;
+    }
+
+    // 在 N/2 組 (2m, 2m+1) 中隨機挑 k 組交換：每組貢獻一個逆序對，而且互不影響
+    static int[] nearlySorted(int N, int k, Random random) {
+        int[] a = sorted(N);
+        int pairs = N / 2;
+        k = Math.min(k, pairs);
+        int[] m = new int[pairs];
+        for (int i = 0; i < pairs; i++) m[i] = i;
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(pairs - i);
+            int t = m[i]; m[i] = m[j]; m[j] = t;
+            int x = a[2 * m[i]]; a[2 * m[i]] = a[2 * m[i] + 1]; a[2 * m[i] + 1] = x;
+        }
+        return a;
+    }
+
+    static int[] fewUnique(int N, int unique, Random random) {
+        int[] a = new int[N];
+        for (int i = 0; i < N; i++) a[i] = random.nextInt(unique);
+        return a;
+    }
+
+    static int[] organPipe(int N) {
+        int[] a = new int[N];
+        for (int i = 0; i < N; i++) a[i] = Math.min(i, N - 1 - i);
+        return a;
+    }
+
+    // 鋸齒：0, 1, ..., 999 重複（不在 INPUTS 裡，可以在命令列指定）
+    static int[] sawtooth(int N) {
+        int[] a = new int[N];
+        for (int i = 0; i < N; i++) a[i] = i % 1000;
+        return a;
+    }
+
+    static int[] input(String kind, int N, Random random) {
+        switch (kind) {
+            case "random":        return random(N, random);
+            case "sorted":        return sorted(N);
+            case "reversed":      return reversed(N);
+            case "nearly-sorted": return nearlySorted(N, Integer.getInteger("k", Math.max(1, N / 100)), random);
+            case "few-unique":    return fewUnique(N, 8, random);
+            case "organ-pipe":    return organPipe(N);
+            case "sawtooth":      return sawtooth(N);
+            default: throw new IllegalArgumentException("未知的輸入: " + kind);
+        }
+    }
+
+    static Integer[] boxed(int[] a) {
+        Integer[] boxed = new Integer[a.length];
+        for (int i = 0; i < a.length; i++) boxed[i] = a[i];
+        return boxed;
+    }
+
+    // === 排序 ===
+
+    private interface Sort { void sort(Comparable[] a); }
+    private interface CountedSort { void sort(Comparable[] a, SortStats stats); }
+
+    private static final class Algorithm {
+        final String name;
+        final boolean quadratic;
+        final Sort sort;
+        final CountedSort counted;          // null → 只能用計數的 Comparator 量比較次數
+
+        Algorithm(String name, boolean quadratic, Sort sort, CountedSort counted) {
+            this.name = name; this.quadratic = quadratic; this.sort = sort; this.counted = counted;
+        }
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static final Comparator<Comparable> NATURAL = (v, w) -> v.compareTo(w);
+
+    private static final Algorithm[] ALGORITHMS = {
+        new Algorithm("Insertion.sortSwap",  true,  Insertion::sortSwap,  Insertion::sortSwap),
+        new Algorithm("Insertion.sortShift", true,  Insertion::sortShift, Insertion::sortShift),
+        new Algorithm("Selection.sort",      true,  Selection::sort,      Selection::sort),
+        new Algorithm("Shell.sort",          false, Shell::sort,          Shell::sort),
+        new Algorithm("HybridSort.sort",     false, HybridSort::sort,     null),
+        new Algorithm("Arrays.sort",         false, Arrays::sort,         null),
+        new Algorithm("Arrays.parallelSort", false, a -> Arrays.parallelSort(a, NATURAL), null),
+    };
+
+    // 沒有 sort(a, stats) 的排序：用計數的 Comparator 再排一次
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static long countCompares(Algorithm algorithm, Comparable[] a) {
+        LongAdder compares = new LongAdder();
+        Comparator<Comparable> counting = (v, w) -> { compares.increment(); return v.compareTo(w); };
+        switch (algorithm.name) {
+            case "HybridSort.sort":     HybridSort.sort(a, counting); break;
+            case "Arrays.sort":         Arrays.sort(a, counting); break;
+            case "Arrays.parallelSort": Arrays.parallelSort(a, counting); break;
+            default: throw new IllegalArgumentException(algorithm.name);
+        }
+        return compares.sum();
+    }
+
+    // === 量測 ===
+
+    private static final class Result {
+        double nanosPerSort;
+        double bytesPerSort;
+        long compares;
+        long writes = -1;       // -1 → 量不到
+    }
+
+    private static Result measure(Algorithm algorithm, Integer[] source) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long self = Thread.currentThread().threadId();
+        int N = source.length;
+        int copies = Math.max(1, ELEMENTS_PER_ROUND / Math.max(N, 1));
+        Comparable[][] batch = new Comparable[copies][N];
+
+        Result r = new Result();
+        r.nanosPerSort = Double.MAX_VALUE;
+        for (int round = 0; round < 4; round++) {              // 第 0 輪是暖機
+            for (Comparable[] a : batch) System.arraycopy(source, 0, a, 0, N);
+            long allocBefore = threads.getThreadAllocatedBytes(self);
+            long start = System.nanoTime();
+            for (Comparable[] a : batch) algorithm.sort.sort(a);
+            long elapsed = System.nanoTime() - start;
+            double bytes = (threads.getThreadAllocatedBytes(self) - allocBefore) / (double) copies;
+            if (round > 0 && elapsed / (double) copies < r.nanosPerSort) {
+                r.nanosPerSort = elapsed / (double) copies;
+                r.bytesPerSort = bytes;
+            }
+        }
+        for (Comparable[] a : batch) {
+            if (!Insertion.isSorted(a)) throw new IllegalStateException(algorithm.name + " 排序結果錯誤");
+        }
+
+        Comparable[] a = source.clone();
+        if (algorithm.counted != null) {
+            SortStats stats = new SortStats();
+            algorithm.counted.sort(a, stats);
+            r.compares = stats.compares();
+            r.writes = stats.writes();
+        } else {
+            r.compares = countCompares(algorithm, a);
+        }
+        return r;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int maxN = args.length > 0 ? Integer.parseInt(args[0]) : 1 << 20;
+        String[] inputs = args.length > 1 ? new String[] { args[1] } : INPUTS;
+        int maxQuadraticN = Integer.getInteger("maxQuadraticN", 1 << 14);
+        String csv = System.getProperty("csv");
+        PrintWriter out = csv == null ? null : new PrintWriter(Files.newBufferedWriter(Path.of(csv)));
+        if (out != null) out.println("input,N,sort,nanos_per_sort,bytes_per_sort,compares,writes");
+
+        System.out.printf("%-14s %8s %-20s %14s %10s %12s %14s %14s%n",
+                "input", "N", "sort", "time/sort", "ns/elem", "bytes/sort", "compares", "writes");
+        for (String kind : inputs) {
+            double[] lastMillis = new double[ALGORITHMS.length];
+            int[] lastN = new int[ALGORITHMS.length];
+            for (int N = 16; N <= maxN; N *= 16) {
+                Integer[] source = boxed(input(kind, N, new Random(42)));
+                for (int i = 0; i < ALGORITHMS.length; i++) {
+                    Algorithm algorithm = ALGORITHMS[i];
+                    if (algorithm.quadratic && N > maxQuadraticN) {
+                        double growth = (double) N / lastN[i];
+                        if (lastN[i] == 0 || lastMillis[i] * growth * growth > QUADRATIC_BUDGET_MS) continue;
+                    }
+                    Result r = measure(algorithm, source);
+                    lastMillis[i] = r.nanosPerSort / 1e6;
+                    lastN[i] = N;
+                    System.out.printf("%-14s %8d %-20s %14s %10.1f %12.0f %14d %14s%n",
+                            kind, N, algorithm.name, formatTime(r.nanosPerSort), r.nanosPerSort / N,
+                            r.bytesPerSort, r.compares, r.writes < 0 ? "-" : Long.toString(r.writes));
+                    if (out != null) {
+                        out.printf("%s,%d,%s,%.0f,%.0f,%d,%s%n", kind, N, algorithm.name, r.nanosPerSort,
+                                r.bytesPerSort, r.compares, r.writes < 0 ? "" : Long.toString(r.writes));
+                    }
+                }
+            }
+        }
+        if (out != null) {
+            out.close();
+            System.out.println("結果已寫入 " + csv);
+        }
+    }
+
+    private static String formatTime(double nanos) {
+        if (nanos < 1e3) return String.format("%.0f ns", nanos);
+        if (nanos < 1e6) return String.format("%.1f µs", nanos / 1e3);
+        return String.format("%.1f ms", nanos / 1e6);
+    }
+}
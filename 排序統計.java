@@ -0,0 +1,201 @@
+import java.util.Random;
+
+/**
+ * SortStats.java
+ *
+ * 一次排序呼叫的成本統計 + 步驟追蹤（給 Insertion / Selection / Shell 用）
+ * -----------------------------------------------------------------------------
+ * 為什麼不用 static 計數器：
+ * - 多個執行緒同時排序時，static 的 compares++ 會互相覆蓋（而且不是原子操作）
+ * - 就算沒人要看統計，每次比較都還是要付計數的成本
+ *
+ * 做法：
+ * - 每個排序都有兩種入口：
+ *     sort(a)          ：不計數、不追蹤，就是最精簡的迴圈
+ *     sort(a, stats)   ：計數寫進呼叫者給的 stats；stats 有 Tracer 時才印中間狀態
+ * - 一個 SortStats 只給一次（或一個執行緒的）排序使用，本身不做同步；
+ *   多個執行緒各自的結果可以用 add() 加總
+ * - 各排序類別的 resetStats() / printStats() 讀寫的是「目前執行緒」的預設 SortStats（stats()）
+ *
+ * 執行：
+ *   java SortStats            // 關閉時的成本（和手寫的最精簡迴圈比）＋ 多執行緒下計數是否正確
+ *   java SortStats 4000 8
+ */
+public class SortStats {
+
+    // 追蹤：每一步排序後被呼叫一次；label 是各排序原本印在陣列前面的那段文字
+    public interface Tracer {
+        void step(String label, Comparable[] a);
+    }
+
+    // 和原本 TRACE=true 時相同的輸出：label 後面接著陣列內容（同一列、以空白分隔）
+    public static final Tracer PRINT = (label, a) -> {
+        System.out.print(label);
+        for (int i = 0; i < a.length; i++) {
+            System.out.print(a[i] + (i + 1 == a.length ? "" : " "));
+        }
+        System.out.println();
+    };
+
+    long compares;   // 比較次數
+    long exchanges;  // 交換次數
+    long writes;     // 對陣列 a[] 的寫入次數
+    private Tracer tracer;
+
+    public SortStats() {
+        this(null);
+    }
+
+    public SortStats(Tracer tracer) {
+        this.tracer = tracer;
+    }
+
+    public long compares()  { return compares; }
+    public long exchanges() { return exchanges; }
+    public long writes()    { return writes; }
+
+    // 換掉（或用 null 關掉）追蹤
+    public SortStats setTracer(Tracer tracer) {
+        this.tracer = tracer;
+        return this;
+    }
+
+    public boolean tracing() {
+        return tracer != null;
+    }
+
+    // 排序內部呼叫；只有 tracing() 時才組 label，所以沒開追蹤不會產生字串
+    void trace(String label, Comparable[] a) {
+        tracer.step(label, a);
+    }
+
+    public void reset() {
+        compares = 0;
+        exchanges = 0;
+        writes = 0;
+    }
+
+    // 把 other 的計數加進來（合併多個執行緒的結果）
+    public SortStats add(SortStats other) {
+        compares += other.compares;
+        exchanges += other.exchanges;
+        writes += other.writes;
+        return this;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("compares=%d, exchanges=%d, writes=%d", compares, exchanges, writes);
+    }
+
+    // === 主程式 ===
+
+    // 參考用：手寫的最精簡平移版插入排序（沒有任何統計的程式碼）
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static void bareInsertion(Comparable[] a) {
+        for (int i = 1; i < a.length; i++) {
+            Comparable key = a[i];
+            int j = i - 1;
+            while (j >= 0 && key.compareTo(a[j]) < 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = key;
+        }
+    }
+
+    private interface Sort { void sort(Comparable[] a); }
+
+    // 對同一份資料跑 reps 次，回傳最快的毫秒數
+    private static double best(Integer[] source, int reps, Sort sort) {
+        Comparable[] a = new Comparable[source.length];
+        double best = Double.MAX_VALUE;
+        for (int r = 0; r < reps; r++) {
+            System.arraycopy(source, 0, a, 0, a.length);
+            long start = System.nanoTime();
+            sort.sort(a);
+            best = Math.min(best, (System.nanoTime() - start) / 1e6);
+        }
+        return best;
+    }
+
+    private static Integer[] randomInput(int N, long seed) {
+        Random random = new Random(seed);
+        Integer[] a = new Integer[N];
+        for (int i = 0; i < N; i++) a[i] = random.nextInt(N);
+        return a;
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        int N = args.length > 0 ? Integer.parseInt(args[0]) : 4000;
+        int T = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors() + 1;
+        int reps = 15;
+
+        // 1) 關閉時的成本：sort(a) 應該和手寫的最精簡迴圈一樣快；sort(a, stats) 的額外成本列出來參考
+        Integer[] source = randomInput(N, 42);
+        System.out.printf("Comparable[] N=%d，%d 次取最快（ms）%n", N, reps);
+        double bare = best(source, reps, SortStats::bareInsertion);
+        double off = best(source, reps, Insertion::sortShift);
+        SortStats counting = new SortStats();
+        double on = best(source, reps, a -> Insertion.sortShift(a, counting));
+        System.out.printf("  手寫迴圈                 : %8.2f%n", bare);
+        System.out.printf("  Insertion.sortShift(a)   : %8.2f (%.2fx)%n", off, off / bare);
+        System.out.printf("  sortShift(a, stats)      : %8.2f (%.2fx)%n", on, on / bare);
+        System.out.printf("  Shell.sort(a)            : %8.2f%n", best(source, reps, Shell::sort));
+        System.out.printf("  Shell.sort(a, stats)     : %8.2f%n", best(source, reps, a -> Shell.sort(a, new SortStats())));
+
+        // 2) 多執行緒：T 個執行緒同時排序各自的資料、各自的 SortStats，
+        //    每一份計數都必須和單執行緒排同一份資料的結果相同
+        String[] names = { "Insertion.sortSwap", "Insertion.sortShift", "Selection.sort", "Shell.sort" };
+        Sort[] plain = { Insertion::sortSwap, Insertion::sortShift, Selection::sort, Shell::sort };
+        for (int s = 0; s < names.length; s++) {
+            final int which = s;
+            SortStats[] expected = new SortStats[T];
+            for (int t = 0; t < T; t++) {
+                expected[t] = new SortStats();
+                Comparable[] a = randomInput(N, t);
+                sortWithStats(which, a, expected[t]);
+            }
+
+            SortStats[] actual = new SortStats[T];
+            Thread[] threads = new Thread[T];
+            Throwable[] failure = new Throwable[1];
+            for (int t = 0; t < T; t++) {
+                final int id = t;
+                actual[t] = new SortStats();
+                threads[t] = new Thread(() -> {
+                    for (int r = 0; r < 3; r++) {
+                        Comparable[] a = randomInput(N, id);
+                        actual[id].reset();
+                        sortWithStats(which, a, actual[id]);
+                        if (!Insertion.isSorted(a)) throw new IllegalStateException(names[which] + " 排序結果錯誤");
+                        plain[which].sort(randomInput(N, id + T));   // 同時跑不計數的版本當干擾
+                    }
+                });
+                threads[t].setUncaughtExceptionHandler((thread, e) -> failure[0] = e);
+                threads[t].start();
+            }
+            for (Thread thread : threads) thread.join();
+            if (failure[0] != null) throw new IllegalStateException(names[which] + " 執行緒失敗", failure[0]);
+
+            SortStats total = new SortStats();
+            for (int t = 0; t < T; t++) {
+                if (actual[t].compares != expected[t].compares || actual[t].exchanges != expected[t].exchanges
+                        || actual[t].writes != expected[t].writes) {
+                    throw new IllegalStateException(names[which] + " 執行緒 " + t + " 計數不符: " + actual[t] + " / " + expected[t]);
+                }
+                total.add(actual[t]);
+            }
+            System.out.printf("%-20s %d 個執行緒的計數都正確，合計 %s%n", names[which], T, total);
+        }
+    }
+
+    private static void sortWithStats(int which, Comparable[] a, SortStats stats) {
+        switch (which) {
+            case 0:  Insertion.sortSwap(a, stats); break;
+            case 1:  Insertion.sortShift(a, stats); break;
+            case 2:  Selection.sort(a, stats); break;
+            default: Shell.sort(a, stats); break;
+        }
+    }
+}
@@ -0,0 +1,340 @@
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * SortingNetwork.java
+ *
+ * 小範圍的排序網路（bitonic sorting network）：int[] / long[] / double[]，MIN..MAX（8..64）個元素
+ * -----------------------------------------------------------------------------
+ * 直覺：
+ *   - 插入排序在小範圍雖然常數小，但每一步「要不要再往前移」都是資料相依的分支；
+ *     隨機資料大約一半猜錯，每猜錯一次就是十幾個 cycle
+ *   - 排序網路的比較交換（compare-exchange）順序是固定的，和資料無關：
+ *     每一步都是 lo = min(x, y)、hi = max(x, y)，沒有分支
+ *   - 固定順序 → 同一個 stage 裡的比較交換彼此獨立，可以一次做一整個向量（SIMD）
+ *
+ * 網路：bitonic sort，大小 B 是 2 的次方（8、16、32、64）；範圍不足 B 的部分用最大值補滿，
+ *       排好後只複製回前 n 個。B 個元素共 lg B·(lg B + 1)/2 個 stage，每個 stage B/2 次比較交換。
+ *
+ * 兩種實作：
+ *   (A) 純量：一般的 Math.min / Math.max（JIT 會編成 cmov），任何 JVM 都能跑
+ *   (B) 向量：在另一個選用的檔案 VectorSortingNetwork（jdk.incubator.vector 的 256-bit 向量）
+ *       - 距離 d >= lane 數的 stage：兩個向量直接做 min / max
+ *       - 距離 d <  lane 數的 stage：向量和自己的 lane i ^ d 重排版本做 min / max，再用 mask 挑
+ *     這個檔案不 import jdk.incubator.vector，一般的 javac 就能編譯；
+ *     執行時有 jdk.incubator.vector 模組（--add-modules jdk.incubator.vector）、找得到 VectorSortingNetwork、
+ *     而且硬體的向量至少 256 bit 時，才用 MethodHandle 呼叫 (B)；否則自動用 (A)。
+ *     -DsortingNetwork.scalar=true 可強制用 (A)。
+ *
+ * double：順序要和 Double.compare 一致（-0.0 < 0.0，NaN 最大）
+ *   - Math.min / max 與向量 MIN / MAX 都把 -0.0 當成比 0.0 小 → 沒問題
+ *   - 但有 NaN 時 min / max 會回傳 NaN、把另一個值弄丟 → 範圍裡有 NaN 就改用 Insertion.sortBinary
+ *
+ * 不在 MIN..MAX 之間的範圍直接交給 Insertion.sortBinary。不穩定（基本型別看不出差別）。
+ * HybridSort 的 int[] / long[] / double[] 用它當小範圍的收尾。
+ *
+ * 執行：
+ *   java --add-modules jdk.incubator.vector SortingNetwork      // 正確性 + 每種大小和插入排序比時間
+ *   java SortingNetwork                                         // 沒有向量模組：只有純量版本
+ *   （向量版本要另外編譯：javac --add-modules jdk.incubator.vector VectorSortingNetwork.java）
+ */
+public class SortingNetwork {
+
+    static final int MIN = 8;
+    static final int MAX = 64;
+
+    // VectorSortingNetwork.network(int[] / long[] / double[], int)；用不了向量版本時都是 null
+    private static final MethodHandle SIMD_INT, SIMD_LONG, SIMD_DOUBLE;
+    static final boolean SIMD;
+
+    // 沒有向量模組時完全不會載入 VectorSortingNetwork（也就不會碰到 jdk.incubator.vector 的類別）
+    static {
+        MethodHandle i = null, l = null, d = null;
+        if (!Boolean.getBoolean("sortingNetwork.scalar")
+                && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+            try {
+                Class<?> c = Class.forName("VectorSortingNetwork");
+                if ((Boolean) c.getMethod("supported").invoke(null)) {
+                    MethodHandles.Lookup lookup = MethodHandles.lookup();
+                    i = lookup.findStatic(c, "network", MethodType.methodType(void.class, int[].class, int.class));
+                    l = lookup.findStatic(c, "network", MethodType.methodType(void.class, long[].class, int.class));
+                    d = lookup.findStatic(c, "network", MethodType.methodType(void.class, double[].class, int.class));
+                }
+            } catch (ReflectiveOperationException | LinkageError e) {
+                i = l = d = null;                         // 沒有編譯向量版本：用純量版本
+            }
+        }
+        SIMD_INT = i;
+        SIMD_LONG = l;
+        SIMD_DOUBLE = d;
+        SIMD = i != null;
+    }
+
+    // 網路大小：>= n 的最小 2 的次方，至少 MIN
+    private static int size(int n) {
+        return Math.max(MIN, Integer.highestOneBit(n - 1) << 1);
+    }
+
+    // ========================= int[] =========================
+
+    // 排序 a[lo..hi)
+    public static void sort(int[] a, int lo, int hi) {
+        sort(a, lo, hi, new int[MAX]);
+    }
+
+    // scratch 的長度至少 MAX；給呼叫很多次的人（HybridSort）重複使用
+    static void sort(int[] a, int lo, int hi, int[] scratch) {
+        int n = hi - lo;
+        if (n < MIN || n > MAX) {
+            Insertion.sortBinary(a, lo, hi);
+            return;
+        }
+        int B = size(n);
+        System.arraycopy(a, lo, scratch, 0, n);
+        Arrays.fill(scratch, n, B, Integer.MAX_VALUE);
+        if (SIMD) simd(scratch, B);
+        else      network(scratch, B);
+        System.arraycopy(scratch, 0, a, lo, n);
+    }
+
+    // (A) 純量 bitonic 網路：排序 b[0..B)，B 是 2 的次方
+    // k = 正在合併的 bitonic 序列長度；d = 比較交換的距離；(i & k) == 0 的那一半遞增、另一半遞減
+    static void network(int[] b, int B) {
+        for (int k = 2; k <= B; k <<= 1) {
+            for (int d = k >> 1; d > 0; d >>= 1) {
+                for (int g = 0; g < B; g += 2 * d) {
+                    boolean up = (g & k) == 0;
+                    for (int i = g; i < g + d; i++) {
+                        int x = b[i], y = b[i + d];
+                        int lo = Math.min(x, y), hi = Math.max(x, y);
+                        b[i]     = up ? lo : hi;
+                        b[i + d] = up ? hi : lo;
+                    }
+                }
+            }
+        }
+    }
+
+    // ========================= long[] =========================
+
+    public static void sort(long[] a, int lo, int hi) {
+        sort(a, lo, hi, new long[MAX]);
+    }
+
+    static void sort(long[] a, int lo, int hi, long[] scratch) {
+        int n = hi - lo;
+        if (n < MIN || n > MAX) {
+            Insertion.sortBinary(a, lo, hi);
+            return;
+        }
+        int B = size(n);
+        System.arraycopy(a, lo, scratch, 0, n);
+        Arrays.fill(scratch, n, B, Long.MAX_VALUE);
+        if (SIMD) simd(scratch, B);
+        else      network(scratch, B);
+        System.arraycopy(scratch, 0, a, lo, n);
+    }
+
+    static void network(long[] b, int B) {
+        for (int k = 2; k <= B; k <<= 1) {
+            for (int d = k >> 1; d > 0; d >>= 1) {
+                for (int g = 0; g < B; g += 2 * d) {
+                    boolean up = (g & k) == 0;
+                    for (int i = g; i < g + d; i++) {
+                        long x = b[i], y = b[i + d];
+                        long lo = Math.min(x, y), hi = Math.max(x, y);
+                        b[i]     = up ? lo : hi;
+                        b[i + d] = up ? hi : lo;
+                    }
+                }
+            }
+        }
+    }
+
+    // ========================= double[] =========================
+
+    public static void sort(double[] a, int lo, int hi) {
+        sort(a, lo, hi, new double[MAX]);
+    }
+
+    static void sort(double[] a, int lo, int hi, double[] scratch) {
+        int n = hi - lo;
+        if (n < MIN || n > MAX || hasNaN(a, lo, hi)) {
+            Insertion.sortBinary(a, lo, hi);
+            return;
+        }
+        int B = size(n);
+        System.arraycopy(a, lo, scratch, 0, n);
+        Arrays.fill(scratch, n, B, Double.POSITIVE_INFINITY);
+        if (SIMD) simd(scratch, B);
+        else      network(scratch, B);
+        System.arraycopy(scratch, 0, a, lo, n);
+    }
+
+    private static boolean hasNaN(double[] a, int lo, int hi) {
+        boolean nan = false;
+        for (int i = lo; i < hi; i++) nan |= a[i] != a[i];
+        return nan;
+    }
+
+    // 沒有 NaN 時 Math.min / max 和 Double.compare 的順序一致（-0.0 < 0.0）
+    static void network(double[] b, int B) {
+        for (int k = 2; k <= B; k <<= 1) {
+            for (int d = k >> 1; d > 0; d >>= 1) {
+                for (int g = 0; g < B; g += 2 * d) {
+                    boolean up = (g & k) == 0;
+                    for (int i = g; i < g + d; i++) {
+                        double x = b[i], y = b[i + d];
+                        double lo = Math.min(x, y), hi = Math.max(x, y);
+                        b[i]     = up ? lo : hi;
+                        b[i + d] = up ? hi : lo;
+                    }
+                }
+            }
+        }
+    }
+
+    // ========================= (B) 向量版本 =========================
+
+    // invokeExact 的 MethodHandle 是 static final → JIT 會把它當常數，直接內聯到 VectorSortingNetwork.network
+    static void simd(int[] b, int B) {
+        try {
+            SIMD_INT.invokeExact(b, B);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {                           // network 不丟 checked exception，不會走到這裡
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void simd(long[] b, int B) {
+        try {
+            SIMD_LONG.invokeExact(b, B);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {                           // network 不丟 checked exception，不會走到這裡
+            throw new IllegalStateException(e);
+        }
+    }
+
+    static void simd(double[] b, int B) {
+        try {
+            SIMD_DOUBLE.invokeExact(b, B);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {                           // network 不丟 checked exception，不會走到這裡
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ========================= 主程式 =========================
+
+    private interface Kernel { void sort(int block); }
+
+    // 把 blocks 個連續的 block 各排一次，重複到至少 2^22 個元素；取 5 輪最快，回傳每個 block 的 ns
+    private static double time(int n, int blocks, Runnable refill, Kernel kernel) {
+        int rounds = Math.max(1, (1 << 22) / (n * blocks));
+        double best = Double.MAX_VALUE;
+        for (int r = 0; r < 6; r++) {                     // 第 0 輪是暖機
+            long elapsed = 0;
+            for (int t = 0; t < rounds; t++) {
+                refill.run();
+                long start = System.nanoTime();
+                for (int k = 0; k < blocks; k++) kernel.sort(k);
+                elapsed += System.nanoTime() - start;
+            }
+            if (r > 0) best = Math.min(best, elapsed / (double) (rounds * blocks));
+        }
+        return best;
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        System.out.println("向量版本：" + (SIMD ? "啟用（256-bit）" : "未啟用，只量純量版本"));
+
+        // 1) 正確性：0..MAX+8 每種大小、隨機 / 重複鍵 / 遞增 / 遞減，和 Arrays.sort 比
+        int[] is = new int[MAX];
+        long[] ls = new long[MAX];
+        double[] ds = new double[MAX];
+        double[] specials = { -0.0, 0.0, Double.NEGATIVE_INFINITY, Double.POSITIVE_INFINITY, Double.MIN_VALUE, -Double.MAX_VALUE };
+        for (int n = 0; n <= MAX + 8; n++) {
+            for (int trial = 0; trial < 200; trial++) {
+                int[] a = new int[n + 6];
+                long[] l = new long[n + 6];
+                double[] d = new double[n + 6];
+                for (int i = 0; i < a.length; i++) {
+                    switch (trial % 4) {
+                        case 0:  a[i] = random.nextInt(); break;
+                        case 1:  a[i] = random.nextInt(3) - 1; break;
+                        case 2:  a[i] = i; break;
+                        default: a[i] = -i; break;
+                    }
+                    if (trial % 7 == 0 && i % 5 == 0) a[i] = random.nextBoolean() ? Integer.MAX_VALUE : Integer.MIN_VALUE;
+                    l[i] = trial % 2 == 0 ? (long) a[i] << 20 ^ random.nextInt(1 << 20) : a[i];
+                    d[i] = trial % 3 == 0 ? specials[random.nextInt(specials.length)] : a[i] / 7.0;
+                }
+                if (trial % 50 == 49) d[3 + random.nextInt(n + 1)] = Double.NaN;
+                int[] ea = a.clone(); long[] el = l.clone(); double[] ed = d.clone();
+                Arrays.sort(ea, 3, 3 + n); Arrays.sort(el, 3, 3 + n); Arrays.sort(ed, 3, 3 + n);
+                sort(a, 3, 3 + n, is); sort(l, 3, 3 + n, ls); sort(d, 3, 3 + n, ds);
+                if (!Arrays.equals(a, ea) || !Arrays.equals(l, el) || !Arrays.equals(d, ed)) {
+                    throw new IllegalStateException("N=" + n + " trial=" + trial + " 排序結果錯誤");
+                }
+            }
+        }
+        if (SIMD) {                                       // 向量和純量版本逐一比對
+            for (int B = MIN; B <= MAX; B <<= 1) {
+                for (int trial = 0; trial < 1000; trial++) {
+                    int[] a = new int[B];
+                    for (int i = 0; i < B; i++) a[i] = random.nextInt(2 * B);
+                    int[] b = a.clone();
+                    network(a, B); simd(b, B);
+                    if (!Arrays.equals(a, b)) throw new IllegalStateException("B=" + B + " 向量和純量版本結果不同");
+                }
+            }
+        }
+        System.out.println("正確性檢查通過（int[] / long[] / double[]，含 -0.0、±Infinity、NaN）");
+
+        // 2) 每種大小：排序連續的 blocks 個區塊，每個區塊的 ns（5 輪最快）
+        int blocks = 1024;
+        System.out.printf("%n%-7s %4s %16s %16s %16s %10s%n", "型別", "n", "Insertion(ns)", "網路-純量(ns)", "網路-向量(ns)", "加速");
+        for (String type : new String[] { "int", "long", "double" }) {
+            for (int n = MIN; n <= MAX; n <<= 1) {
+                int N = n * blocks, size = n;
+                int[] srcI = new int[N]; long[] srcL = new long[N]; double[] srcD = new double[N];
+                for (int i = 0; i < N; i++) { srcI[i] = random.nextInt(); srcL[i] = random.nextLong(); srcD[i] = random.nextGaussian(); }
+                int[] a = new int[N]; long[] l = new long[N]; double[] d = new double[N];
+                int[] sb = new int[MAX]; long[] lb = new long[MAX]; double[] db = new double[MAX];
+                Runnable refill = () -> {
+                    System.arraycopy(srcI, 0, a, 0, N); System.arraycopy(srcL, 0, l, 0, N); System.arraycopy(srcD, 0, d, 0, N);
+                };
+                Kernel insertion, scalar, simd;
+                switch (type) {
+                    case "int":
+                        insertion = k -> Insertion.sortBinary(a, k * size, (k + 1) * size);
+                        scalar = k -> { System.arraycopy(a, k * size, sb, 0, size); network(sb, size); System.arraycopy(sb, 0, a, k * size, size); };
+                        simd = k -> { System.arraycopy(a, k * size, sb, 0, size); simd(sb, size); System.arraycopy(sb, 0, a, k * size, size); };
+                        break;
+                    case "long":
+                        insertion = k -> Insertion.sortBinary(l, k * size, (k + 1) * size);
+                        scalar = k -> { System.arraycopy(l, k * size, lb, 0, size); network(lb, size); System.arraycopy(lb, 0, l, k * size, size); };
+                        simd = k -> { System.arraycopy(l, k * size, lb, 0, size); simd(lb, size); System.arraycopy(lb, 0, l, k * size, size); };
+                        break;
+                    default:
+                        insertion = k -> Insertion.sortBinary(d, k * size, (k + 1) * size);
+                        scalar = k -> { System.arraycopy(d, k * size, db, 0, size); network(db, size); System.arraycopy(db, 0, d, k * size, size); };
+                        simd = k -> { System.arraycopy(d, k * size, db, 0, size); simd(db, size); System.arraycopy(db, 0, d, k * size, size); };
+                        break;
+                }
+                double ti = time(n, blocks, refill, insertion);
+                double ts = time(n, blocks, refill, scalar);
+                double tv = SIMD ? time(n, blocks, refill, simd) : Double.NaN;
+                System.out.printf("%-7s %4d %16.1f %16.1f %16s %9.2fx%n", type, n, ti, ts,
+                        SIMD ? String.format("%.1f", tv) : "-", ti / (SIMD ? tv : ts));
+            }
+        }
+    }
+}
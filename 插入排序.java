@@ -16,6 +16,11 @@
  * 穩定性：穩定（相等鍵不會改相對順序）
  * 空間：O(1) in-place
  *
+ * 成本統計與追蹤：
+ * - sortSwap(a) / sortShift(a)：不計數、不追蹤，最精簡的迴圈
+ * - sortSwap(a, stats) / sortShift(a, stats)：計數寫進這次呼叫的 SortStats，
+ *   stats 有 Tracer 時印出每次外圈後的陣列；多執行緒同時排序也不會互相干擾
+ *
  * 執行範例：
  *   javac Insertion.java
  *   // 預設使用交換版 + 開啟追蹤，未給參數時自帶示範資料
@@ -33,12 +38,8 @@
 public class Insertion {
 
     // === 成本統計（方便你觀察比較/交換/寫入次數） ===
-    private static long compares  = 0; // 呼叫 less() 的次數（近似比較次數）
-    private static long exchanges = 0; // 呼叫 exch() 的次數（交換版專用）
-    private static long writes    = 0; // 對陣列 a[] 的寫入次數（平移版著重觀察此數）
-
-    // 是否顯示每次外圈 i 完成後的陣列狀態（教學追蹤用）
-    private static boolean TRACE = true;
+    // 每個執行緒一份預設的 SortStats；resetStats() / printStats() 讀寫的就是這一份
+    private static final ThreadLocal<SortStats> STATS = ThreadLocal.withInitial(SortStats::new);
 
     // === (A) 交換版：教材經典寫法（與 Princeton 幻燈片一致） ===
     public static void sortSwap(Comparable[] a) {
@@ -49,10 +50,19 @@ public class Insertion {
                     exch(a, j, j-1);                // 交換 a[j] 與 a[j-1]
                 } else break;                       // 一旦左邊不大於我，就到位了，停止
             }
-            if (TRACE) {
-                System.out.printf("[swap] i=%2d -> ", i);
-                show(a);
+        }
+    }
+
+    // 同上，另外把 compares / exchanges / writes 計入 stats，並在每次外圈後追蹤
+    public static void sortSwap(Comparable[] a, SortStats stats) {
+        int N = a.length;
+        for (int i = 0; i < N; i++) {
+            for (int j = i; j > 0; j--) {
+                if (less(a[j], a[j-1], stats)) {
+                    exch(a, j, j-1, stats);
+                } else break;
             }
+            if (stats.tracing()) stats.trace(String.format("[swap] i=%2d -> ", i), a);
         }
     }
 
@@ -61,38 +71,209 @@ public class Insertion {
         int N = a.length;
         for (int i = 1; i < N; i++) {               // i=0 時左邊空集合，可從 i=1 開始
             Comparable key = a[i];                  // 暫存新牌（要插入的元素）
-            // 注意：此處只「讀出」key；真正計數寫入的是陣列 a[] 的賦值
             int j = i - 1;
 
             // 將左側比 key 大的元素，逐一往右「平移」
             while (j >= 0 && less(key, a[j])) {
                 a[j + 1] = a[j];                    // 把較大的元素往右搬一格
-                writes++;                           // 計一次陣列寫入
                 j--;
             }
             // 找到插入點（j+1）：把 key 放回陣列
             a[j + 1] = key;
-            writes++;
+        }
+    }
 
-            if (TRACE) {
-                System.out.printf("[shift] i=%2d -> ", i);
-                show(a);
+    // 同上，另外把 compares / writes 計入 stats，並在每次外圈後追蹤
+    public static void sortShift(Comparable[] a, SortStats stats) {
+        int N = a.length;
+        for (int i = 1; i < N; i++) {
+            Comparable key = a[i];
+            // 注意：此處只「讀出」key；真正計數寫入的是陣列 a[] 的賦值
+            int j = i - 1;
+            while (j >= 0 && less(key, a[j], stats)) {
+                a[j + 1] = a[j];
+                stats.writes++;                     // 計一次陣列寫入
+                j--;
+            }
+            a[j + 1] = key;
+            stats.writes++;
+            if (stats.tracing()) stats.trace(String.format("[shift] i=%2d -> ", i), a);
+        }
+    }
+
+    // === (C) 基本型別 / Comparator 版本：不 boxing、不配置記憶體 ===
+    // 數值資料直接比較，不經過 Comparable.compareTo 的虛擬呼叫；
+    // 和 sortSwap(a) / sortShift(a) 一樣不計數、不追蹤，只留下最精簡的迴圈。
+    // double 用 Double.compare 的順序（-0.0 < 0.0，NaN 最大），和 Arrays.sort 一致。
+
+    public static void sortSwap(int[] a) {
+        for (int i = 1; i < a.length; i++) {
+            for (int j = i; j > 0 && a[j] < a[j-1]; j--) {
+                int t = a[j]; a[j] = a[j-1]; a[j-1] = t;
+            }
+        }
+    }
+
+    public static void sortSwap(long[] a) {
+        for (int i = 1; i < a.length; i++) {
+            for (int j = i; j > 0 && a[j] < a[j-1]; j--) {
+                long t = a[j]; a[j] = a[j-1]; a[j-1] = t;
+            }
+        }
+    }
+
+    public static void sortSwap(double[] a) {
+        for (int i = 1; i < a.length; i++) {
+            for (int j = i; j > 0 && Double.compare(a[j], a[j-1]) < 0; j--) {
+                double t = a[j]; a[j] = a[j-1]; a[j-1] = t;
+            }
+        }
+    }
+
+    public static <T> void sortSwap(T[] a, java.util.Comparator<? super T> c) {
+        for (int i = 1; i < a.length; i++) {
+            for (int j = i; j > 0 && c.compare(a[j], a[j-1]) < 0; j--) {
+                T t = a[j]; a[j] = a[j-1]; a[j-1] = t;
+            }
+        }
+    }
+
+    public static void sortShift(int[] a) {
+        for (int i = 1; i < a.length; i++) {
+            int key = a[i];
+            int j = i - 1;
+            while (j >= 0 && key < a[j]) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = key;
+        }
+    }
+
+    public static void sortShift(long[] a) {
+        for (int i = 1; i < a.length; i++) {
+            long key = a[i];
+            int j = i - 1;
+            while (j >= 0 && key < a[j]) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = key;
+        }
+    }
+
+    public static void sortShift(double[] a) {
+        for (int i = 1; i < a.length; i++) {
+            double key = a[i];
+            int j = i - 1;
+            while (j >= 0 && Double.compare(key, a[j]) < 0) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = key;
+        }
+    }
+
+    public static <T> void sortShift(T[] a, java.util.Comparator<? super T> c) {
+        for (int i = 1; i < a.length; i++) {
+            T key = a[i];
+            int j = i - 1;
+            while (j >= 0 && c.compare(key, a[j]) < 0) {
+                a[j + 1] = a[j];
+                j--;
             }
+            a[j + 1] = key;
         }
     }
 
-    // === 輔助：比較（包一層方便之後換比較邏輯；同時統計比較次數） ===
+    // === (D) 二分插入版：只排 a[lo..hi)，給 O(N log N) 排序當小範圍的收尾 ===
+    // 和平移版一樣先暫存 key，但用二分搜尋找插入點（比較次數 O(log i)），
+    // 再用 System.arraycopy 一次把 [pos, i) 右移一格。
+    // 找的是「最後一個 <= key 的後面」，所以相等鍵的相對順序不變（仍然穩定）。
+    // key 不小於左邊鄰居時直接跳過 → 已排序的資料仍是 O(N)。
+
+    public static void sortBinary(int[] a, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            int key = a[i];
+            if (key >= a[i-1]) continue;
+            int left = lo, right = i - 1;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (key < a[mid]) right = mid;
+                else left = mid + 1;
+            }
+            System.arraycopy(a, left, a, left + 1, i - left);
+            a[left] = key;
+        }
+    }
+
+    public static void sortBinary(long[] a, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            long key = a[i];
+            if (key >= a[i-1]) continue;
+            int left = lo, right = i - 1;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (key < a[mid]) right = mid;
+                else left = mid + 1;
+            }
+            System.arraycopy(a, left, a, left + 1, i - left);
+            a[left] = key;
+        }
+    }
+
+    public static void sortBinary(double[] a, int lo, int hi) {
+        for (int i = lo + 1; i < hi; i++) {
+            double key = a[i];
+            if (Double.compare(key, a[i-1]) >= 0) continue;
+            int left = lo, right = i - 1;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (Double.compare(key, a[mid]) < 0) right = mid;
+                else left = mid + 1;
+            }
+            System.arraycopy(a, left, a, left + 1, i - left);
+            a[left] = key;
+        }
+    }
+
+    public static <T> void sortBinary(T[] a, int lo, int hi, java.util.Comparator<? super T> c) {
+        for (int i = lo + 1; i < hi; i++) {
+            T key = a[i];
+            if (c.compare(key, a[i-1]) >= 0) continue;
+            int left = lo, right = i - 1;
+            while (left < right) {
+                int mid = (left + right) >>> 1;
+                if (c.compare(key, a[mid]) < 0) right = mid;
+                else left = mid + 1;
+            }
+            System.arraycopy(a, left, a, left + 1, i - left);
+            a[left] = key;
+        }
+    }
+
+    // === 輔助：比較（包一層方便之後換比較邏輯；有 stats 的版本同時統計比較次數） ===
     private static boolean less(Comparable v, Comparable w) {
-        compares++;
         return v.compareTo(w) < 0;
     }
 
-    // === 輔助：交換（交換版會用到；同時統計交換次數與寫入次數） ===
+    private static boolean less(Comparable v, Comparable w, SortStats stats) {
+        stats.compares++;
+        return v.compareTo(w) < 0;
+    }
+
+    // === 輔助：交換（交換版會用到；有 stats 的版本同時統計交換次數與寫入次數） ===
     private static void exch(Comparable[] a, int i, int j) {
-        exchanges++;
         Comparable t = a[i];
-        a[i] = a[j];  writes++;     // 計一次寫入
-        a[j] = t;     writes++;     // 計一次寫入
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    private static void exch(Comparable[] a, int i, int j, SortStats stats) {
+        stats.exchanges++;
+        Comparable t = a[i];
+        a[i] = a[j];  stats.writes++;     // 計一次寫入
+        a[j] = t;     stats.writes++;     // 計一次寫入
     }
 
     // === 驗證是否已排序（升冪） ===
@@ -111,23 +292,24 @@ public class Insertion {
         System.out.println();
     }
 
+    // === 目前執行緒的預設統計（傳給 sortSwap(a, stats()) / sortShift(a, stats())） ===
+    public static SortStats stats() {
+        return STATS.get();
+    }
+
     // === 重置統計 ===
     public static void resetStats() {
-        compares = 0;
-        exchanges = 0;
-        writes = 0;
+        STATS.get().reset();
     }
 
     // === 印出統計（根據使用版本看重點：交換版看 exchanges，平移版看 writes） ===
     public static void printStats(String label) {
-        System.out.printf("%s -> compares=%d, exchanges=%d, writes=%d%n",
-                label, compares, exchanges, writes);
+        System.out.printf("%s -> %s%n", label, STATS.get());
     }
 
     // === 解析旗標（--shift / --trace=false），回傳過濾後的實際鍵值 ===
     private static Comparable[] parseArgs(String[] args) {
         boolean shift = false;
-        TRACE = true;
 
         // 預先掃旗標
         int countKeys = 0;
@@ -142,7 +324,7 @@ public class Insertion {
         int k = 0;
         for (String s : args) {
             if (s.equalsIgnoreCase("--shift")) { shift = true; continue; }
-            if (s.equalsIgnoreCase("--trace=false")) { TRACE = false; continue; }
+            if (s.equalsIgnoreCase("--trace=false")) { stats().setTracer(null); continue; }
             keys[k++] = s;
         }
 
@@ -153,7 +335,8 @@ public class Insertion {
 
     // === 主程式（示範 / 測試） ===
     public static void main(String[] args) {
-        // 1) 處理輸入：若無參數，使用教科書示範資料
+        // 1) 處理輸入：若無參數，使用教科書示範資料（預設開啟追蹤，--trace=false 關閉）
+        stats().setTracer(SortStats.PRINT);
         Comparable[] a;
         if (args.length == 0) {
             a = new Comparable[] { "S", "O", "R", "T", "E", "X", "A", "M", "P", "L", "E" };
@@ -174,15 +357,15 @@ public class Insertion {
         // 2) 排序 + 追蹤 + 驗證 + 成本
         resetStats();
         if (useShift) {
-            System.out.println("使用平移版（shift）插入排序：" + (TRACE ? "TRACE=on" : "TRACE=off"));
-            sortShift(a);
+            System.out.println("使用平移版（shift）插入排序：" + (stats().tracing() ? "TRACE=on" : "TRACE=off"));
+            sortShift(a, stats());
             System.out.println("排序結果：");
             show(a);
             System.out.println("是否已排序（升冪）？ " + isSorted(a));
             printStats("shift");
         } else {
-            System.out.println("使用交換版（swap）插入排序：" + (TRACE ? "TRACE=on" : "TRACE=off"));
-            sortSwap(a);
+            System.out.println("使用交換版（swap）插入排序：" + (stats().tracing() ? "TRACE=on" : "TRACE=off"));
+            sortSwap(a, stats());
             System.out.println("排序結果：");
             show(a);
             System.out.println("是否已排序（升冪）？ " + isSorted(a));
@@ -191,6 +374,6 @@ public class Insertion {
 
         // 小提醒：
         // - 已近乎有序 → 插入排序表現極佳（接近 O(N)）
-        // - 大量資料 → 請使用 O(N log N) 排序（例如 Timsort/Merge/Quick）
+        // - 大量資料 → 請使用 O(N log N) 排序（例如 Timsort/Merge/Quick，或本專案的 HybridSort）
     }
 }
@@ -0,0 +1,292 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * SortedBuffer.java
+ *
+ * 遞增的有序緩衝區：資料幾乎依序到達時，不必每批都重新排序整個緩衝區
+ * -----------------------------------------------------------------------------
+ * 直覺：就是插入排序的「插入」那一步，只是不必每次從頭開始
+ *   - add(x)：x 不小於最後一個元素 → 直接接在後面（O(1)）；
+ *             否則從尾端往前「跳躍搜尋」（1, 2, 4, ... 再二分）找插入點，再用 System.arraycopy 一次右移一整塊
+ *   - addAll(batch)：先把這一批排好（Insertion.sortBinary，批次本身幾乎有序時是線性的），
+ *             再從後往前併入：每個批次元素找到位置後，比它大的那一塊一次搬到最終位置
+ *   → 搬移的元素個數 = 新元素和既有元素之間的逆序對數；搜尋是 O(log 位移)，
+ *     整體成本跟著逆序對走，而不是每批 O(N)
+ *
+ * 滑動視窗：evictBelow(key) 從前端移除所有 < key 的元素、evictFirst(k) 移除最小的 k 個；
+ *          只是移動起點 head，空間在下一次擴充時才整理（攤銷 O(1)）
+ * 讀取：get(i) 是 O(1)；scan(k, action) 依序走過最小的 k 個，O(k)
+ *
+ * 特性：穩定（相等鍵照到達順序排）；不是 thread-safe
+ *
+ * 執行：
+ *   java SortedBuffer                 // 100 萬筆幾乎有序的資料、每批 1000 筆、視窗 10 萬，和「每批重新排序」比
+ *   java SortedBuffer 5000000 64
+ */
+public class SortedBuffer<T> {
+
+    private final Comparator<? super T> comparator;
+    private Object[] a;
+    private int head, tail;      // 元素在 a[head..tail)
+    private long moved;          // 插入時被右移的元素個數（= 逆序對數）
+
+    public SortedBuffer(Comparator<? super T> comparator) {
+        this(comparator, 16);
+    }
+
+    public SortedBuffer(Comparator<? super T> comparator, int capacity) {
+        this.comparator = comparator;
+        this.a = new Object[Math.max(capacity, 1)];
+    }
+
+    public int size() {
+        return tail - head;
+    }
+
+    public boolean isEmpty() {
+        return tail == head;
+    }
+
+    // 第 i 小的元素
+    @SuppressWarnings("unchecked")
+    public T get(int i) {
+        if (i < 0 || i >= size()) throw new IndexOutOfBoundsException("索引超出範圍: " + i + " / " + size());
+        return (T) a[head + i];
+    }
+
+    public long moved() {
+        return moved;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(int i, T x) {
+        return comparator.compare((T) a[i], x);
+    }
+
+    // === 插入 ===
+
+    public void add(T x) {
+        ensureCapacity(1);
+        int p = upperBound(x, head, tail);
+        int n = tail - p;
+        if (n > 0) {
+            System.arraycopy(a, p, a, p + 1, n);
+            moved += n;
+        }
+        a[p] = x;
+        tail++;
+    }
+
+    /**
+     * 加入一批元素；batch 會被就地排序
+     */
+    public void addAll(T[] batch) {
+        int b = batch.length;
+        if (b == 0) return;
+        Insertion.sortBinary(batch, 0, b, comparator);
+        ensureCapacity(b);
+
+        // 從後往前併：a[head..i) 是還沒搬的舊元素，k 是下一個要填的位置（由後往前）
+        int i = tail, k = tail + b;
+        for (int j = b - 1; j >= 0; j--) {
+            T x = batch[j];
+            int p = upperBound(x, head, i);
+            int n = i - p;
+            if (n > 0) {
+                System.arraycopy(a, p, a, k - n, n);
+                moved += n;
+                k -= n;
+                i = p;
+            }
+            a[--k] = x;
+        }
+        tail += b;
+    }
+
+    // a[lo..hi) 中第一個 > x 的位置；從尾端往前跳躍（1, 2, 4, ...）再二分，成本 O(log(hi - 位置))
+    private int upperBound(T x, int lo, int hi) {
+        if (hi == lo || compare(hi - 1, x) <= 0) return hi;      // 最常見：依序到達
+        int r = hi - 1;                                          // a[r..hi) 都 > x
+        int step = 1;
+        int l = r - step;
+        while (l >= lo && compare(l, x) > 0) {
+            r = l;
+            step <<= 1;
+            l = r - step;
+        }
+        int left = Math.max(l + 1, lo), right = r;               // 答案在 [left, right]
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (compare(mid, x) > 0) right = mid;
+            else left = mid + 1;
+        }
+        return left;
+    }
+
+    // a[lo..hi) 中第一個 >= x 的位置；從前端往後跳躍
+    private int lowerBound(T x, int lo, int hi) {
+        if (hi == lo || compare(lo, x) >= 0) return lo;
+        int l = lo;                                              // a[lo..l] 都 < x
+        int step = 1;
+        int r = l + step;
+        while (r < hi && compare(r, x) < 0) {
+            l = r;
+            step <<= 1;
+            r = l + step;
+        }
+        int left = l + 1, right = Math.min(r, hi);
+        while (left < right) {
+            int mid = (left + right) >>> 1;
+            if (compare(mid, x) < 0) left = mid + 1;
+            else right = mid;
+        }
+        return left;
+    }
+
+    // 確保尾端還有 n 個空位：前端空出的夠多就往前搬，否則加倍
+    private void ensureCapacity(int n) {
+        if (tail + n <= a.length) return;
+        int size = size();
+        Object[] target = size + n <= a.length / 2 ? a : new Object[Math.max(2 * a.length, size + n)];
+        System.arraycopy(a, head, target, 0, size);
+        if (target == a) Arrays.fill(a, size, tail, null);
+        a = target;
+        head = 0;
+        tail = size;
+    }
+
+    // === 滑動視窗 ===
+
+    // 移除所有 < key 的元素，回傳移除的個數
+    public int evictBelow(T key) {
+        return evictFirst(lowerBound(key, head, tail) - head);
+    }
+
+    // 移除最小的 k 個元素
+    public int evictFirst(int k) {
+        if (k < 0) throw new IllegalArgumentException("移除個數不能是負的: " + k);
+        k = Math.min(k, size());
+        Arrays.fill(a, head, head + k, null);      // 讓 GC 可以回收
+        head += k;
+        if (head == tail) head = tail = 0;
+        return k;
+    }
+
+    // === 讀取 ===
+
+    // 依序走過最小的 k 個元素
+    @SuppressWarnings("unchecked")
+    public void scan(int k, Consumer<? super T> action) {
+        int end = head + Math.min(k, size());
+        for (int i = head; i < end; i++) action.accept((T) a[i]);
+    }
+
+    // === 主程式 ===
+
+    // 幾乎有序的資料流：第 i 筆 = i + [0, jitter) 的隨機偏移
+    private static Long[] feed(int N, int jitter, Random random) {
+        Long[] stream = new Long[N];
+        for (int i = 0; i < N; i++) stream[i] = (long) i + random.nextInt(jitter);
+        return stream;
+    }
+
+    // 逆序對數（合併排序順便數）
+    private static long inversions(Long[] stream) {
+        long[] a = new long[stream.length], aux = new long[stream.length];
+        for (int i = 0; i < a.length; i++) a[i] = stream[i];
+        long count = 0;
+        for (int width = 1; width < a.length; width *= 2) {
+            for (int lo = 0; lo < a.length - width; lo += 2 * width) {
+                int mid = lo + width, hi = Math.min(lo + 2 * width, a.length);
+                int i = lo, j = mid;
+                for (int k = lo; k < hi; k++) {
+                    if (i < mid && (j >= hi || a[i] <= a[j])) aux[k] = a[i++];
+                    else { count += mid - i; aux[k] = a[j++]; }
+                }
+                System.arraycopy(aux, lo, a, lo, hi - lo);
+            }
+        }
+        return count;
+    }
+
+    public static void main(String[] args) {
+        int N = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int jitter = args.length > 1 ? Integer.parseInt(args[1]) : 16;
+        int batchSize = 1000;
+        long window = 100_000;
+        Comparator<Long> order = Long::compare;
+        Long[] stream = feed(N, jitter, new Random(42));
+
+        // 1) 成本跟著逆序對走：不驅逐時，add 的搬移個數剛好等於逆序對數
+        long inversions = inversions(stream);
+        SortedBuffer<Long> all = new SortedBuffer<>(order);
+        for (Long x : stream) all.add(x);
+        if (all.moved() != inversions) throw new IllegalStateException("搬移個數 " + all.moved() + " != 逆序對數 " + inversions);
+        for (int i = 1; i < all.size(); i++) {
+            if (all.get(i - 1) > all.get(i)) throw new IllegalStateException("沒有排好，位置 " + i);
+        }
+        System.out.printf("N=%d, jitter=%d：逆序對 %d，add 搬移 %d（平均每筆 %.2f）%n",
+                N, jitter, inversions, all.moved(), all.moved() / (double) N);
+
+        // 2) 每批 batchSize 筆、只保留最近 window 的鍵；三種做法最後的內容必須相同
+        System.out.printf("%n每批 %d 筆，視窗 %d（ms，3 次取最快）%n", batchSize, window);
+        double tAdd = Double.MAX_VALUE, tBatch = Double.MAX_VALUE, tResort = Double.MAX_VALUE;
+        SortedBuffer<Long> byAdd = null, byBatch = null;
+        Long[] resorted = null;
+        int resortedSize = 0;
+        for (int r = 0; r < 3; r++) {
+            // (a) 一筆一筆 add
+            long start = System.nanoTime();
+            byAdd = new SortedBuffer<>(order);
+            for (int from = 0; from < N; from += batchSize) {
+                int to = Math.min(N, from + batchSize);
+                for (int i = from; i < to; i++) byAdd.add(stream[i]);
+                byAdd.evictBelow(stream[to - 1] - window);
+            }
+            tAdd = Math.min(tAdd, (System.nanoTime() - start) / 1e6);
+
+            // (b) 整批 addAll
+            start = System.nanoTime();
+            byBatch = new SortedBuffer<>(order);
+            for (int from = 0; from < N; from += batchSize) {
+                int to = Math.min(N, from + batchSize);
+                byBatch.addAll(Arrays.copyOfRange(stream, from, to));
+                byBatch.evictBelow(stream[to - 1] - window);
+            }
+            tBatch = Math.min(tBatch, (System.nanoTime() - start) / 1e6);
+
+            // (c) 對照：每批接在後面，整個緩衝區用 Arrays.sort 重新排序，再移掉視窗外的前綴
+            start = System.nanoTime();
+            resorted = new Long[16];
+            resortedSize = 0;
+            for (int from = 0; from < N; from += batchSize) {
+                int to = Math.min(N, from + batchSize);
+                if (resortedSize + (to - from) > resorted.length) resorted = Arrays.copyOf(resorted, 2 * (resortedSize + to - from));
+                System.arraycopy(stream, from, resorted, resortedSize, to - from);
+                resortedSize += to - from;
+                Arrays.sort(resorted, 0, resortedSize, order);
+                long key = stream[to - 1] - window;
+                int cut = 0;
+                while (cut < resortedSize && resorted[cut] < key) cut++;
+                System.arraycopy(resorted, cut, resorted, 0, resortedSize - cut);
+                resortedSize -= cut;
+            }
+            tResort = Math.min(tResort, (System.nanoTime() - start) / 1e6);
+        }
+
+        if (byAdd.size() != resortedSize || byBatch.size() != resortedSize) throw new IllegalStateException("視窗大小不同");
+        for (int i = 0; i < resortedSize; i++) {
+            if (!byAdd.get(i).equals(resorted[i]) || !byBatch.get(i).equals(resorted[i])) throw new IllegalStateException("內容不同，位置 " + i);
+        }
+        long[] firstSum = new long[1];
+        byBatch.scan(10, x -> firstSum[0] += x);
+
+        System.out.printf("  SortedBuffer.add       : %8.1f  （搬移 %d）%n", tAdd, byAdd.moved());
+        System.out.printf("  SortedBuffer.addAll    : %8.1f  （搬移 %d）%n", tBatch, byBatch.moved());
+        System.out.printf("  每批 Arrays.sort 全部  : %8.1f%n", tResort);
+        System.out.printf("  視窗內 %d 筆，最小的 10 筆總和 %d%n", resortedSize, firstSum[0]);
+    }
+}
@@ -0,0 +1,535 @@
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+/**
+ * HybridSort.java
+ *
+ * 混合排序（Introsort）：快速排序 + 堆積排序 + 二分插入排序
+ * ----------------------------------------------------------
+ * 直覺：
+ *   - 快速排序平均最快，但遇到壞的 pivot 會退化成 O(N^2)
+ *   - 遞迴深度超過 2·lg N 時，剩下的範圍改用堆積排序（最壞 O(N log N)）
+ *     → 整體保證 O(N log N)
+ *   - 範圍夠小時改用常數小的收尾：int[] / long[] / double[] 在 PRIMITIVE_CUTOFF 以下交給
+ *     SortingNetwork（沒有分支的排序網路，有向量模組時用 SIMD）；物件在 CUTOFF 以下交給 Insertion.sortBinary
+ *   - 開始前先掃一次：已經遞增就直接結束，嚴格遞減就反轉（O(N)）；
+ *     遇到第一個反例就停，所以隨機資料幾乎不用花時間
+ *
+ * 細節：
+ *   - pivot：小範圍取三數中位數，大範圍（>= NINTHER_THRESHOLD）取 Tukey 的 ninther
+ *   - 切分：教材的雙指標切分，遇到和 pivot 相等的鍵兩邊都停 → 大量重複鍵時仍然對半切
+ *   - 先遞迴較小的一半、較大的一半用迴圈 → 堆疊深度 O(log N)
+ *
+ * 特性：In-place、不穩定（物件版本也一樣）
+ * double 用 Double.compare 的順序（-0.0 < 0.0，NaN 最大），和 Arrays.sort 一致
+ *
+ * 執行：
+ *   java HybridSort                   // 各種輸入的正確性 + 時間（和 Arrays.sort、Shell.sort 比）、PRIMITIVE_CUTOFF 掃描
+ *   java --add-modules jdk.incubator.vector HybridSort   // 排序網路用向量版本
+ *   java HybridSort 1000000
+ */
+public class HybridSort {
+
+    // 物件：範圍小於這個大小就交給二分插入排序
+    static final int CUTOFF = 32;
+    // 基本型別：範圍小於這個大小就交給排序網路（網路最多 SortingNetwork.MAX 個元素；用 main 的掃描量出來的）
+    static final int PRIMITIVE_CUTOFF = SortingNetwork.MAX;
+    // 範圍至少這麼大才用 ninther 選 pivot
+    private static final int NINTHER_THRESHOLD = 128;
+
+    // ========================= int[] =========================
+
+    public static void sort(int[] a) {
+        sort(a, 0, a.length);
+    }
+
+    // 排序 a[lo..hi)
+    public static void sort(int[] a, int lo, int hi) {
+        sort(a, lo, hi, PRIMITIVE_CUTOFF);
+    }
+
+    static void sort(int[] a, int lo, int hi, int cutoff) {
+        checkRange(a.length, lo, hi);
+        if (presorted(a, lo, hi)) return;
+        introsort(a, lo, hi, 2 * log2(hi - lo), Math.max(cutoff, 1), new int[SortingNetwork.MAX]);   // 切分至少要 2 個元素
+    }
+
+    // 已經遞增 → true；嚴格遞減 → 反轉後 true；其他 → false
+    private static boolean presorted(int[] a, int lo, int hi) {
+        if (hi - lo < 2) return true;
+        int i = lo + 1;
+        if (a[lo] <= a[lo+1]) {
+            while (i < hi && a[i-1] <= a[i]) i++;
+            return i == hi;
+        }
+        while (i < hi && a[i-1] > a[i]) i++;
+        if (i < hi) return false;
+        for (int l = lo, r = hi - 1; l < r; l++, r--) exch(a, l, r);
+        return true;
+    }
+
+    private static void introsort(int[] a, int lo, int hi, int depth, int cutoff, int[] scratch) {
+        while (hi - lo > cutoff) {
+            if (depth-- == 0) {
+                heapSort(a, lo, hi);
+                return;
+            }
+            int j = partition(a, lo, hi);
+            if (j - lo < hi - j) {
+                introsort(a, lo, j, depth, cutoff, scratch);
+                lo = j + 1;
+            } else {
+                introsort(a, j + 1, hi, depth, cutoff, scratch);
+                hi = j;
+            }
+        }
+        SortingNetwork.sort(a, lo, hi, scratch);
+    }
+
+    // 選好 pivot 放到 a[lo]，切分後 a[lo..j) <= a[j] <= a(j..hi)，回傳 j
+    private static int partition(int[] a, int lo, int hi) {
+        exch(a, lo, pivot(a, lo, hi));
+        int v = a[lo];
+        int i = lo, j = hi;
+        while (true) {
+            while (a[++i] < v) if (i == hi - 1) break;
+            while (v < a[--j]) ;                 // a[lo] == v 會擋住 j
+            if (i >= j) break;
+            exch(a, i, j);
+        }
+        exch(a, lo, j);
+        return j;
+    }
+
+    private static int pivot(int[] a, int lo, int hi) {
+        int n = hi - lo, mid = lo + n / 2, last = hi - 1;
+        if (n < NINTHER_THRESHOLD) return median3(a, lo, mid, last);
+        int s = n / 8;
+        return median3(a, median3(a, lo, lo + s, lo + 2*s),
+                          median3(a, mid - s, mid, mid + s),
+                          median3(a, last - 2*s, last - s, last));
+    }
+
+    private static int median3(int[] a, int i, int j, int k) {
+        return a[i] < a[j] ? (a[j] < a[k] ? j : a[i] < a[k] ? k : i)
+                           : (a[k] < a[j] ? j : a[k] < a[i] ? k : i);
+    }
+
+    // 堆積排序 a[lo..hi)：堆積的第 k 個節點（1 起算）放在 a[lo + k - 1]
+    private static void heapSort(int[] a, int lo, int hi) {
+        int n = hi - lo;
+        for (int k = n / 2; k >= 1; k--) sink(a, lo, k, n);
+        while (n > 1) {
+            exch(a, lo, lo + n - 1);
+            sink(a, lo, 1, --n);
+        }
+    }
+
+    private static void sink(int[] a, int lo, int k, int n) {
+        int v = a[lo + k - 1];
+        while (2 * k <= n) {
+            int j = 2 * k;
+            if (j < n && a[lo + j - 1] < a[lo + j]) j++;
+            if (v >= a[lo + j - 1]) break;
+            a[lo + k - 1] = a[lo + j - 1];
+            k = j;
+        }
+        a[lo + k - 1] = v;
+    }
+
+    private static void exch(int[] a, int i, int j) {
+        int t = a[i]; a[i] = a[j]; a[j] = t;
+    }
+
+    // ========================= long[] =========================
+
+    public static void sort(long[] a) {
+        sort(a, 0, a.length);
+    }
+
+    public static void sort(long[] a, int lo, int hi) {
+        checkRange(a.length, lo, hi);
+        if (presorted(a, lo, hi)) return;
+        introsort(a, lo, hi, 2 * log2(hi - lo), new long[SortingNetwork.MAX]);
+    }
+
+    private static boolean presorted(long[] a, int lo, int hi) {
+        if (hi - lo < 2) return true;
+        int i = lo + 1;
+        if (a[lo] <= a[lo+1]) {
+            while (i < hi && a[i-1] <= a[i]) i++;
+            return i == hi;
+        }
+        while (i < hi && a[i-1] > a[i]) i++;
+        if (i < hi) return false;
+        for (int l = lo, r = hi - 1; l < r; l++, r--) exch(a, l, r);
+        return true;
+    }
+
+    private static void introsort(long[] a, int lo, int hi, int depth, long[] scratch) {
+        while (hi - lo > PRIMITIVE_CUTOFF) {
+            if (depth-- == 0) {
+                heapSort(a, lo, hi);
+                return;
+            }
+            int j = partition(a, lo, hi);
+            if (j - lo < hi - j) {
+                introsort(a, lo, j, depth, scratch);
+                lo = j + 1;
+            } else {
+                introsort(a, j + 1, hi, depth, scratch);
+                hi = j;
+            }
+        }
+        SortingNetwork.sort(a, lo, hi, scratch);
+    }
+
+    private static int partition(long[] a, int lo, int hi) {
+        exch(a, lo, pivot(a, lo, hi));
+        long v = a[lo];
+        int i = lo, j = hi;
+        while (true) {
+            while (a[++i] < v) if (i == hi - 1) break;
+            while (v < a[--j]) ;
+            if (i >= j) break;
+            exch(a, i, j);
+        }
+        exch(a, lo, j);
+        return j;
+    }
+
+    private static int pivot(long[] a, int lo, int hi) {
+        int n = hi - lo, mid = lo + n / 2, last = hi - 1;
+        if (n < NINTHER_THRESHOLD) return median3(a, lo, mid, last);
+        int s = n / 8;
+        return median3(a, median3(a, lo, lo + s, lo + 2*s),
+                          median3(a, mid - s, mid, mid + s),
+                          median3(a, last - 2*s, last - s, last));
+    }
+
+    private static int median3(long[] a, int i, int j, int k) {
+        return a[i] < a[j] ? (a[j] < a[k] ? j : a[i] < a[k] ? k : i)
+                           : (a[k] < a[j] ? j : a[k] < a[i] ? k : i);
+    }
+
+    private static void heapSort(long[] a, int lo, int hi) {
+        int n = hi - lo;
+        for (int k = n / 2; k >= 1; k--) sink(a, lo, k, n);
+        while (n > 1) {
+            exch(a, lo, lo + n - 1);
+            sink(a, lo, 1, --n);
+        }
+    }
+
+    private static void sink(long[] a, int lo, int k, int n) {
+        long v = a[lo + k - 1];
+        while (2 * k <= n) {
+            int j = 2 * k;
+            if (j < n && a[lo + j - 1] < a[lo + j]) j++;
+            if (v >= a[lo + j - 1]) break;
+            a[lo + k - 1] = a[lo + j - 1];
+            k = j;
+        }
+        a[lo + k - 1] = v;
+    }
+
+    private static void exch(long[] a, int i, int j) {
+        long t = a[i]; a[i] = a[j]; a[j] = t;
+    }
+
+    // ========================= double[] =========================
+
+    public static void sort(double[] a) {
+        sort(a, 0, a.length);
+    }
+
+    public static void sort(double[] a, int lo, int hi) {
+        checkRange(a.length, lo, hi);
+        if (presorted(a, lo, hi)) return;
+        introsort(a, lo, hi, 2 * log2(hi - lo), new double[SortingNetwork.MAX]);
+    }
+
+    private static boolean less(double v, double w) {
+        return Double.compare(v, w) < 0;
+    }
+
+    private static boolean presorted(double[] a, int lo, int hi) {
+        if (hi - lo < 2) return true;
+        int i = lo + 1;
+        if (!less(a[lo+1], a[lo])) {
+            while (i < hi && !less(a[i], a[i-1])) i++;
+            return i == hi;
+        }
+        while (i < hi && less(a[i], a[i-1])) i++;
+        if (i < hi) return false;
+        for (int l = lo, r = hi - 1; l < r; l++, r--) exch(a, l, r);
+        return true;
+    }
+
+    private static void introsort(double[] a, int lo, int hi, int depth, double[] scratch) {
+        while (hi - lo > PRIMITIVE_CUTOFF) {
+            if (depth-- == 0) {
+                heapSort(a, lo, hi);
+                return;
+            }
+            int j = partition(a, lo, hi);
+            if (j - lo < hi - j) {
+                introsort(a, lo, j, depth, scratch);
+                lo = j + 1;
+            } else {
+                introsort(a, j + 1, hi, depth, scratch);
+                hi = j;
+            }
+        }
+        SortingNetwork.sort(a, lo, hi, scratch);
+    }
+
+    private static int partition(double[] a, int lo, int hi) {
+        exch(a, lo, pivot(a, lo, hi));
+        double v = a[lo];
+        int i = lo, j = hi;
+        while (true) {
+            while (less(a[++i], v)) if (i == hi - 1) break;
+            while (less(v, a[--j])) ;
+            if (i >= j) break;
+            exch(a, i, j);
+        }
+        exch(a, lo, j);
+        return j;
+    }
+
+    private static int pivot(double[] a, int lo, int hi) {
+        int n = hi - lo, mid = lo + n / 2, last = hi - 1;
+        if (n < NINTHER_THRESHOLD) return median3(a, lo, mid, last);
+        int s = n / 8;
+        return median3(a, median3(a, lo, lo + s, lo + 2*s),
+                          median3(a, mid - s, mid, mid + s),
+                          median3(a, last - 2*s, last - s, last));
+    }
+
+    private static int median3(double[] a, int i, int j, int k) {
+        return less(a[i], a[j]) ? (less(a[j], a[k]) ? j : less(a[i], a[k]) ? k : i)
+                                : (less(a[k], a[j]) ? j : less(a[k], a[i]) ? k : i);
+    }
+
+    private static void heapSort(double[] a, int lo, int hi) {
+        int n = hi - lo;
+        for (int k = n / 2; k >= 1; k--) sink(a, lo, k, n);
+        while (n > 1) {
+            exch(a, lo, lo + n - 1);
+            sink(a, lo, 1, --n);
+        }
+    }
+
+    private static void sink(double[] a, int lo, int k, int n) {
+        double v = a[lo + k - 1];
+        while (2 * k <= n) {
+            int j = 2 * k;
+            if (j < n && less(a[lo + j - 1], a[lo + j])) j++;
+            if (!less(v, a[lo + j - 1])) break;
+            a[lo + k - 1] = a[lo + j - 1];
+            k = j;
+        }
+        a[lo + k - 1] = v;
+    }
+
+    private static void exch(double[] a, int i, int j) {
+        double t = a[i]; a[i] = a[j]; a[j] = t;
+    }
+
+    // ========================= Comparable[] / T[] + Comparator =========================
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private static final Comparator<Comparable> NATURAL = (v, w) -> v.compareTo(w);
+
+    @SuppressWarnings("rawtypes")
+    public static void sort(Comparable[] a) {
+        sort(a, 0, a.length, NATURAL);
+    }
+
+    public static <T> void sort(T[] a, Comparator<? super T> c) {
+        sort(a, 0, a.length, c);
+    }
+
+    public static <T> void sort(T[] a, int lo, int hi, Comparator<? super T> c) {
+        checkRange(a.length, lo, hi);
+        if (presorted(a, lo, hi, c)) return;
+        introsort(a, lo, hi, 2 * log2(hi - lo), c);
+    }
+
+    private static <T> boolean presorted(T[] a, int lo, int hi, Comparator<? super T> c) {
+        if (hi - lo < 2) return true;
+        int i = lo + 1;
+        if (c.compare(a[lo], a[lo+1]) <= 0) {
+            while (i < hi && c.compare(a[i-1], a[i]) <= 0) i++;
+            return i == hi;
+        }
+        while (i < hi && c.compare(a[i-1], a[i]) > 0) i++;
+        if (i < hi) return false;
+        for (int l = lo, r = hi - 1; l < r; l++, r--) exch(a, l, r);
+        return true;
+    }
+
+    private static <T> void introsort(T[] a, int lo, int hi, int depth, Comparator<? super T> c) {
+        while (hi - lo > CUTOFF) {
+            if (depth-- == 0) {
+                heapSort(a, lo, hi, c);
+                return;
+            }
+            int j = partition(a, lo, hi, c);
+            if (j - lo < hi - j) {
+                introsort(a, lo, j, depth, c);
+                lo = j + 1;
+            } else {
+                introsort(a, j + 1, hi, depth, c);
+                hi = j;
+            }
+        }
+        Insertion.sortBinary(a, lo, hi, c);
+    }
+
+    private static <T> int partition(T[] a, int lo, int hi, Comparator<? super T> c) {
+        exch(a, lo, pivot(a, lo, hi, c));
+        T v = a[lo];
+        int i = lo, j = hi;
+        while (true) {
+            while (c.compare(a[++i], v) < 0) if (i == hi - 1) break;
+            while (c.compare(v, a[--j]) < 0) ;
+            if (i >= j) break;
+            exch(a, i, j);
+        }
+        exch(a, lo, j);
+        return j;
+    }
+
+    private static <T> int pivot(T[] a, int lo, int hi, Comparator<? super T> c) {
+        int n = hi - lo, mid = lo + n / 2, last = hi - 1;
+        if (n < NINTHER_THRESHOLD) return median3(a, lo, mid, last, c);
+        int s = n / 8;
+        return median3(a, median3(a, lo, lo + s, lo + 2*s, c),
+                          median3(a, mid - s, mid, mid + s, c),
+                          median3(a, last - 2*s, last - s, last, c), c);
+    }
+
+    private static <T> int median3(T[] a, int i, int j, int k, Comparator<? super T> c) {
+        return c.compare(a[i], a[j]) < 0 ? (c.compare(a[j], a[k]) < 0 ? j : c.compare(a[i], a[k]) < 0 ? k : i)
+                                         : (c.compare(a[k], a[j]) < 0 ? j : c.compare(a[k], a[i]) < 0 ? k : i);
+    }
+
+    private static <T> void heapSort(T[] a, int lo, int hi, Comparator<? super T> c) {
+        int n = hi - lo;
+        for (int k = n / 2; k >= 1; k--) sink(a, lo, k, n, c);
+        while (n > 1) {
+            exch(a, lo, lo + n - 1);
+            sink(a, lo, 1, --n, c);
+        }
+    }
+
+    private static <T> void sink(T[] a, int lo, int k, int n, Comparator<? super T> c) {
+        T v = a[lo + k - 1];
+        while (2 * k <= n) {
+            int j = 2 * k;
+            if (j < n && c.compare(a[lo + j - 1], a[lo + j]) < 0) j++;
+            if (c.compare(v, a[lo + j - 1]) >= 0) break;
+            a[lo + k - 1] = a[lo + j - 1];
+            k = j;
+        }
+        a[lo + k - 1] = v;
+    }
+
+    private static void exch(Object[] a, int i, int j) {
+        Object t = a[i]; a[i] = a[j]; a[j] = t;
+    }
+
+    // ========================= 共用 =========================
+
+    private static void checkRange(int length, int lo, int hi) {
+        if (lo < 0 || hi > length || lo > hi) {
+            throw new IllegalArgumentException("範圍不合法: [" + lo + ", " + hi + ") / " + length);
+        }
+    }
+
+    private static int log2(int n) {
+        return 31 - Integer.numberOfLeadingZeros(Math.max(n, 1));
+    }
+
+    // === 主程式：正確性、和 Arrays.sort / Shell.sort 比較時間、比較次數 / (N lg N)、PRIMITIVE_CUTOFF 掃描 ===
+    // 輸入用 SortBenchmark.input 的產生器（和 SortBenchmark 同一組輸入分布）
+
+    private static double time(Runnable sort) {
+        long start = System.nanoTime();
+        sort.run();
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    public static void main(String[] args) {
+        int N = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        Random random = new Random(42);
+        String[] kinds = { "random", "sorted", "reversed", "nearly-sorted", "few-unique", "organ-pipe", "sawtooth" };
+
+        // 1) 正確性：各種大小（含 0、1、兩個 CUTOFF 附近）與各種輸入，四種型別都和 Arrays.sort 比
+        for (String kind : kinds) {
+            for (int n : new int[] { 0, 1, 2, 3, CUTOFF - 1, CUTOFF, CUTOFF + 1,
+                                     PRIMITIVE_CUTOFF - 1, PRIMITIVE_CUTOFF, PRIMITIVE_CUTOFF + 1, 200, 5000, 100_000 }) {
+                int[] a = SortBenchmark.input(kind, n, random);
+                int[] expected = a.clone();
+                Arrays.sort(expected);
+                long[] l = new long[n];
+                double[] d = new double[n];
+                Integer[] g = new Integer[n];
+                for (int i = 0; i < n; i++) { l[i] = a[i]; d[i] = a[i]; g[i] = a[i]; }
+                sort(a); sort(l); sort(d); sort(g, Integer::compare);
+                for (int i = 0; i < n; i++) {
+                    if (a[i] != expected[i] || l[i] != expected[i] || d[i] != expected[i] || g[i] != expected[i]) {
+                        throw new IllegalStateException(kind + " N=" + n + " 排序結果錯誤");
+                    }
+                }
+            }
+        }
+        double[] special = { 0.0, Double.NaN, -0.0, 1.5, Double.NEGATIVE_INFINITY, -0.0, Double.NaN, 0.0 };
+        double[] expected = special.clone();
+        Arrays.sort(expected);
+        sort(special);
+        if (!Arrays.equals(special, expected)) throw new IllegalStateException("double 的 -0.0 / NaN 順序錯誤");
+        System.out.println("正確性檢查通過（int[] / long[] / double[] / T[]+Comparator）");
+
+        // 2) 時間（ms，int[]，取 3 次最快）與比較次數 / (N lg N)（Integer[] + 計數的 Comparator）
+        System.out.printf("%n%-14s %10s %12s %12s %12s %16s%n", "輸入", "N", "HybridSort", "Arrays.sort", "Shell.sort", "compares/NlgN");
+        long[] compares = new long[1];
+        Comparator<Integer> counting = (v, w) -> { compares[0]++; return Integer.compare(v, w); };
+        for (String kind : kinds) {
+            int[] source = SortBenchmark.input(kind, N, random);
+            int[] a = new int[N];
+            double th = Double.MAX_VALUE, ta = Double.MAX_VALUE, ts = Double.MAX_VALUE;
+            for (int r = 0; r < 3; r++) {
+                System.arraycopy(source, 0, a, 0, N);
+                th = Math.min(th, time(() -> sort(a)));
+                System.arraycopy(source, 0, a, 0, N);
+                ta = Math.min(ta, time(() -> Arrays.sort(a)));
+                System.arraycopy(source, 0, a, 0, N);
+                ts = Math.min(ts, time(() -> Shell.sort(a)));
+            }
+            Integer[] g = new Integer[N];
+            for (int i = 0; i < N; i++) g[i] = source[i];
+            compares[0] = 0;
+            sort(g, counting);
+            System.out.printf("%-14s %10d %12.1f %12.1f %12.1f %16.2f%n",
+                    kind, N, th, ta, ts, compares[0] / (N * (Math.log(N) / Math.log(2))));
+        }
+
+        // 3) PRIMITIVE_CUTOFF 掃描（int[] 隨機資料，ms，取 5 次最快；超過 SortingNetwork.MAX 的範圍改回插入排序）
+        System.out.printf("%nPRIMITIVE_CUTOFF 掃描（N=%d，隨機 int[]，目前 %d，排序網路用%s）%n",
+                N, PRIMITIVE_CUTOFF, SortingNetwork.SIMD ? "向量" : "純量");
+        int[] source = SortBenchmark.input("random", N, random);
+        int[] a = new int[N];
+        for (int cutoff : new int[] { 0, 8, 16, 24, 32, 48, 64, 96, 128 }) {
+            double best = Double.MAX_VALUE;
+            for (int r = 0; r < 5; r++) {
+                System.arraycopy(source, 0, a, 0, N);
+                best = Math.min(best, time(() -> sort(a, 0, N, cutoff)));
+            }
+            System.out.printf("  cutoff=%3d : %8.1f ms%n", cutoff, best);
+        }
+    }
+}
@@ -13,6 +13,11 @@
  *   - 不穩定排序
  *   - 複雜度：最壞情況不確定，但用 3x+1 序列，實務上很快
  *
+ * 成本統計與追蹤：
+ *   - sort(a)：不計數、不追蹤，最精簡的迴圈
+ *   - sort(a, stats)：比較 / 交換 / 寫入次數寫進這次呼叫的 SortStats，
+ *     stats 有 Tracer 時印出每次 h-sort 後的陣列
+ *
  * 編譯：
  *   javac Shell.java
  *
@@ -22,9 +27,6 @@
  */
 public class Shell {
 
-    // 是否要印出每次 h-sort 的中間狀態
-    private static boolean TRACE = true;
-
     /**
      * Shellsort 主程式
      * 使用 3x+1 序列 (1,4,13,40,...)
@@ -44,25 +46,113 @@ public class Shell {
                     exch(a, j, j-h);
                 }
             }
-            if (TRACE) {
-                System.out.printf("h = %d → ", h);
-                show(a);
-            }
             h = h/3; // 縮小步長
         }
     }
 
+    /**
+     * 同上，另外把成本計入 stats，並在每次 h-sort 後追蹤
+     */
+    public static void sort(Comparable[] a, SortStats stats) {
+        int N = a.length;
+        int h = 1;
+        while (h < N/3) h = 3*h + 1;
+        while (h >= 1) {
+            for (int i = h; i < N; i++) {
+                for (int j = i; j >= h && less(a[j], a[j-h], stats); j -= h) {
+                    exch(a, j, j-h, stats);
+                }
+            }
+            if (stats.tracing()) stats.trace(String.format("h = %d → ", h), a);
+            h = h/3;
+        }
+    }
+
+    /**
+     * 基本型別 / Comparator 版本：不 boxing、不配置記憶體，同樣使用 3x+1 序列
+     * 內圈用「平移」取代交換（暫存 v，較大的元素往右搬 h 格），不印追蹤
+     * double 用 Double.compare 的順序（-0.0 < 0.0，NaN 最大），和 Arrays.sort 一致
+     */
+    public static void sort(int[] a) {
+        int N = a.length;
+        int h = 1;
+        while (h < N/3) h = 3*h + 1;
+        for (; h >= 1; h /= 3) {
+            for (int i = h; i < N; i++) {
+                int v = a[i];
+                int j = i;
+                for (; j >= h && v < a[j-h]; j -= h) a[j] = a[j-h];
+                a[j] = v;
+            }
+        }
+    }
+
+    public static void sort(long[] a) {
+        int N = a.length;
+        int h = 1;
+        while (h < N/3) h = 3*h + 1;
+        for (; h >= 1; h /= 3) {
+            for (int i = h; i < N; i++) {
+                long v = a[i];
+                int j = i;
+                for (; j >= h && v < a[j-h]; j -= h) a[j] = a[j-h];
+                a[j] = v;
+            }
+        }
+    }
+
+    public static void sort(double[] a) {
+        int N = a.length;
+        int h = 1;
+        while (h < N/3) h = 3*h + 1;
+        for (; h >= 1; h /= 3) {
+            for (int i = h; i < N; i++) {
+                double v = a[i];
+                int j = i;
+                for (; j >= h && Double.compare(v, a[j-h]) < 0; j -= h) a[j] = a[j-h];
+                a[j] = v;
+            }
+        }
+    }
+
+    public static <T> void sort(T[] a, java.util.Comparator<? super T> c) {
+        int N = a.length;
+        int h = 1;
+        while (h < N/3) h = 3*h + 1;
+        for (; h >= 1; h /= 3) {
+            for (int i = h; i < N; i++) {
+                T v = a[i];
+                int j = i;
+                for (; j >= h && c.compare(v, a[j-h]) < 0; j -= h) a[j] = a[j-h];
+                a[j] = v;
+            }
+        }
+    }
+
     // === 輔助函式 ===
     private static boolean less(Comparable v, Comparable w) {
         return v.compareTo(w) < 0;
     }
 
+    private static boolean less(Comparable v, Comparable w, SortStats stats) {
+        stats.compares++;
+        return v.compareTo(w) < 0;
+    }
+
     private static void exch(Comparable[] a, int i, int j) {
         Comparable t = a[i];
         a[i] = a[j];
         a[j] = t;
     }
 
+    private static void exch(Comparable[] a, int i, int j, SortStats stats) {
+        stats.exchanges++;
+        stats.writes += 2;
+        Comparable t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
     private static void show(Comparable[] a) {
         for (int i = 0; i < a.length; i++) {
             System.out.print(a[i] + (i == a.length-1 ? "" : " "));
@@ -89,7 +179,7 @@ public class Shell {
             for (int i = 0; i < args.length; i++) a[i] = args[i];
         }
 
-        sort(a);
+        sort(a, new SortStats(SortStats.PRINT));   // 印出每次 h-sort 的中間狀態
 
         System.out.println("排序結果：");
         show(a);
@@ -21,6 +21,10 @@
  * - 當「交換成本很高」但「比較成本可以接受」時（因為交換次數只有 ~N）。
  * - 對「幾乎已排序」資料沒有加速效果（仍是 ~N^2/2 次比較）。
  *
+ * 成本統計與追蹤：
+ * - sort(a)：不計數、不追蹤，最精簡的迴圈
+ * - sort(a, stats)：比較 / 交換次數寫進這次呼叫的 SortStats，stats 有 Tracer 時印出每次交換後的陣列
+ *
  * 編譯執行：
  *   javac Selection.java
  *   // 範例一：用命令列字串當輸入（每個參數一個鍵）
@@ -31,12 +35,9 @@
  */
 public class Selection {
 
-    // === 統計用計數器（方便你觀察成本） ===
-    private static long compares = 0;  // 計算比較次數（less 被呼叫次數）
-    private static long exchanges = 0; // 計算交換次數（exch 被呼叫次數）
-
-    // 是否在每次交換後印出陣列狀態（教學追蹤用）
-    private static boolean TRACE = true;
+    // === 統計（方便你觀察成本） ===
+    // 每個執行緒一份預設的 SortStats；resetStats() / printStats() 讀寫的就是這一份
+    private static final ThreadLocal<SortStats> STATS = ThreadLocal.withInitial(SortStats::new);
 
     /**
      * 主排序函式：對 a[] 做選擇排序（升冪）。
@@ -55,10 +56,72 @@ public class Selection {
             }
             // 將最小值放到位置 i（若 min==i 也呼叫 exch，便於統計與示範；你也可加條件避免多餘交換）
             exch(a, i, min);
-            if (TRACE) {
-                System.out.printf("i=%2d, min=%2d  -> ", i, min);
-                show(a);
+        }
+    }
+
+    /**
+     * 同上，另外把比較 / 交換次數計入 stats，並在每次交換後追蹤。
+     */
+    public static void sort(Comparable[] a, SortStats stats) {
+        int N = a.length;
+        for (int i = 0; i < N; i++) {
+            int min = i;
+            for (int j = i + 1; j < N; j++) {
+                if (less(a[j], a[min], stats)) {
+                    min = j;
+                }
+            }
+            exch(a, i, min, stats);
+            if (stats.tracing()) stats.trace(String.format("i=%2d, min=%2d  -> ", i, min), a);
+        }
+    }
+
+    /**
+     * 基本型別 / Comparator 版本：不 boxing、不配置記憶體。
+     * 和 sort(Comparable[]) 一樣不計數、不追蹤；min == i 時不做多餘的交換。
+     * double 用 Double.compare 的順序（-0.0 < 0.0，NaN 最大），和 Arrays.sort 一致。
+     */
+    public static void sort(int[] a) {
+        int N = a.length;
+        for (int i = 0; i < N; i++) {
+            int min = i;
+            for (int j = i + 1; j < N; j++) {
+                if (a[j] < a[min]) min = j;
+            }
+            if (min != i) { int t = a[i]; a[i] = a[min]; a[min] = t; }
+        }
+    }
+
+    public static void sort(long[] a) {
+        int N = a.length;
+        for (int i = 0; i < N; i++) {
+            int min = i;
+            for (int j = i + 1; j < N; j++) {
+                if (a[j] < a[min]) min = j;
+            }
+            if (min != i) { long t = a[i]; a[i] = a[min]; a[min] = t; }
+        }
+    }
+
+    public static void sort(double[] a) {
+        int N = a.length;
+        for (int i = 0; i < N; i++) {
+            int min = i;
+            for (int j = i + 1; j < N; j++) {
+                if (Double.compare(a[j], a[min]) < 0) min = j;
             }
+            if (min != i) { double t = a[i]; a[i] = a[min]; a[min] = t; }
+        }
+    }
+
+    public static <T> void sort(T[] a, java.util.Comparator<? super T> c) {
+        int N = a.length;
+        for (int i = 0; i < N; i++) {
+            int min = i;
+            for (int j = i + 1; j < N; j++) {
+                if (c.compare(a[j], a[min]) < 0) min = j;
+            }
+            if (min != i) { T t = a[i]; a[i] = a[min]; a[min] = t; }
         }
     }
 
@@ -71,7 +134,11 @@ public class Selection {
      *   - 回傳 > 0 ： v > w
      */
     private static boolean less(Comparable v, Comparable w) {
-        compares++; // 統計每次比較
+        return v.compareTo(w) < 0;
+    }
+
+    private static boolean less(Comparable v, Comparable w, SortStats stats) {
+        stats.compares++; // 統計每次比較
         return v.compareTo(w) < 0;
     }
 
@@ -80,7 +147,14 @@ public class Selection {
      * 注意：選擇排序的特色是「交換次數少」（約 N 次），有利於交換成本高的環境。
      */
     private static void exch(Comparable[] a, int i, int j) {
-        exchanges++; // 統計每次交換
+        Comparable t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+
+    private static void exch(Comparable[] a, int i, int j, SortStats stats) {
+        stats.exchanges++; // 統計每次交換
+        stats.writes += 2;
         Comparable t = a[i];
         a[i] = a[j];
         a[j] = t;
@@ -107,19 +181,26 @@ public class Selection {
         System.out.println();
     }
 
+    /**
+     * 目前執行緒的預設統計（傳給 sort(a, stats())）
+     */
+    public static SortStats stats() {
+        return STATS.get();
+    }
+
     /**
      * 重置統計（方便多次實驗）
      */
     public static void resetStats() {
-        compares = 0;
-        exchanges = 0;
+        STATS.get().reset();
     }
 
     /**
      * 列印統計資料（比較次數 / 交換次數）
      */
     public static void printStats() {
-        System.out.printf("Comparisons = %d, Exchanges = %d%n", compares, exchanges);
+        SortStats stats = STATS.get();
+        System.out.printf("Comparisons = %d, Exchanges = %d%n", stats.compares(), stats.exchanges());
     }
 
     // === 範例主程式 ===
@@ -138,12 +219,12 @@ public class Selection {
         }
 
         // 2) 可選：是否顯示每一步交換後的追蹤（教學模式）
-        //    若不想顯示過程，把 TRACE 設為 false
-        TRACE = true;
+        //    若不想顯示過程，把 Tracer 設為 null
+        stats().setTracer(SortStats.PRINT);
 
         // 3) 排序 + 顯示結果 + 驗證 + 統計
         resetStats();
-        sort(a);
+        sort(a, stats());
         System.out.println("排序結果：");
         show(a);
 